@@ -1,43 +1,215 @@
 package com.synalogik.wordcountcli;
 
-import com.synalogik.wordcountcore.rendering.OutputStreamMetricsRenderer;
+import com.synalogik.wordcountcore.follow.FileFollower;
+import com.synalogik.wordcountcore.model.WindowedWordCountMetrics;
 import com.synalogik.wordcountcore.*;
 import com.synalogik.wordcountcore.model.WordCountMetrics;
+import com.synalogik.wordcountcore.rendering.MetricsFormat;
 import com.synalogik.wordcountcore.rendering.MetricsRenderer;
+import com.synalogik.wordcountcore.vocabulary.OffHeapWordDictionary;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 /**
  * Provides a command line interface.
  * Picocli library was used to simplify command line handling.
  */
-@Command(description = "Displays word count metrics for a given text source.",
+@Command(description = "Displays word count metrics for the given text sources.",
         name = "wordMetrics", mixinStandardHelpOptions = true)
 public class Main implements Callable<Integer> {
 
-    @Parameters(index = "0", arity = "1", description = "The path to the text source.")
-    private URI pathToTextSource;
+    private static final int[] FOLLOW_WINDOWS_IN_MINUTES = {1, 5, 15};
+    private static final Duration FOLLOW_INTERVAL_LENGTH = Duration.ofSeconds(5);
+    private static final long FOLLOW_POLL_MILLIS = 250;
+
+    @Parameters(arity = "1..*", description = "The paths to the text sources; - reads standard input.")
+    private List<URI> pathsToTextSources;
+
+    @Option(names = "--format", defaultValue = "TEXT", description = "Output format; one of ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+    private MetricsFormat format;
+
+    @Option(names = "--vocab-out", description = "Also count every distinct word across all sources, writing each with its frequency (tab separated, in word order) to this file.")
+    private Path vocabularyFile;
+
+    @Option(names = "--vocab-memory", defaultValue = "256", description = "Megabytes of off-heap memory that may be allocated to count words before spilling to disk; buffers grow by doubling, so about half holds words (default: ${DEFAULT-VALUE}).")
+    private int vocabularyMemoryMegabytes;
+
+    @Option(names = "--engine", description = "Word counting engine; one of ${COMPLETION-CANDIDATES} (default: chosen per source, from its type and size).")
+    private WordCounterEngine engine;
+
+    @Option(names = "--stats", description = "Report the engine used for each source, why, and how long it took, to standard error.")
+    private boolean stats;
+
+    @Option(names = "--follow", description = "Follow a local file as it grows (surviving rotation), periodically displaying metrics for the last 1, 5 and 15 minutes.")
+    private boolean follow;
+
+    @Option(names = "--refresh", defaultValue = "60", description = "Seconds between summaries when following (default: ${DEFAULT-VALUE}).")
+    private int refreshSeconds;
+
+    private final Supplier<ReadableByteChannel> standardInput;
+
+    public Main() {
+        this(StreamingWordCounter.PROCESS_STANDARD_INPUT);
+    }
+
+    /**
+     * @param standardInput supplies the channel read for the source <code>-</code>
+     */
+    Main(final Supplier<ReadableByteChannel> standardInput) {
+        this.standardInput = standardInput;
+    }
 
     public static void main(String... args) throws Exception {
-        int exitCode = new CommandLine(new Main()).execute(args);
+        int exitCode = commandLine(new Main()).execute(args);
         System.exit(exitCode);
     }
 
+    static CommandLine commandLine(final Main main) {
+        return new CommandLine(main).setCaseInsensitiveEnumValuesAllowed(true);
+    }
+
     public Integer call() throws Exception {
-        final WordCountMetrics metrics = new BufferedWordCounter().analyseText(pathToTextSource);
+        if ( follow ) {
+            return follow();
+        }
+
+        if ( vocabularyFile != null ) {
+            if ( vocabularyMemoryMegabytes <= 0 ) {
+                System.out.println("Failed. --vocab-memory must be a positive number of megabytes");
+                return -1;
+            }
+            // checked before counting, rather than failing after the whole corpus has been analysed
+            final Path spillDirectory = vocabularyFile.toAbsolutePath().getParent();
+            if ( !Files.isDirectory(spillDirectory) || !Files.isWritable(spillDirectory) ) {
+                System.out.println("Failed. --vocab-out must be in an existing, writable directory; " + spillDirectory);
+                return -1;
+            }
+            if ( Files.isDirectory(vocabularyFile) ) {
+                System.out.println("Failed. --vocab-out must be a file, not a directory; " + vocabularyFile);
+                return -1;
+            }
+            try (OffHeapWordDictionary vocabulary = new OffHeapWordDictionary(vocabularyMemoryMegabytes * 1024L * 1024L, spillDirectory)) {
+                final int exitCode = analyseTextSources(vocabulary);
+                if ( exitCode == 0 ) {
+                    try (OutputStream out = Files.newOutputStream(vocabularyFile)) {
+                        vocabulary.writeTo(out);
+                    }
+                }
+                return exitCode;
+            }
+        }
 
+        return analyseTextSources(null);
+    }
+
+    /**
+     * Analyse and render each text source in turn, each with the engine best suited to it unless one was requested.
+     * A source that cannot be analysed is reported on standard error, and the rest are still analysed.
+     * @param vocabulary dictionary in which to count words across all sources; may be null
+     * @return 0 if every source was analysed and rendered, otherwise -1
+     */
+    private Integer analyseTextSources(final OffHeapWordDictionary vocabulary) {
+        final MetricsRenderer renderer = format.newRenderer(System.out);
+        final WordCounterFactory wordCounterFactory = new WordCounterFactory(Runtime.getRuntime().availableProcessors(), standardInput);
+        int exitCode = 0;
+
+        for (URI pathToTextSource : pathsToTextSources) {
+            final WordCountMetrics metrics;
+            try {
+                final WordCounterFactory.Plan plan = wordCounterFactory.plan(pathToTextSource, engine, vocabulary != null);
+                final long start = System.nanoTime();
+                metrics = wordCounterFactory.newWordCounter(plan).analyseText(pathToTextSource, new WordCountMetrics(vocabulary));
+                if ( stats ) {
+                    System.err.println(pathToTextSource + ": " + plan + ", took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+            } catch ( Exception e ) {
+                System.err.println("Failed. " + pathToTextSource + ": " + describe(e));
+                exitCode = -1;
+                continue;
+            }
+
+            try {
+                if ( format == MetricsFormat.TEXT && pathsToTextSources.size() > 1 ) {
+                    System.out.println(pathToTextSource + ":");
+                }
+                renderer.renderMetrics(pathToTextSource.toString(), metrics);
+            } catch ( Exception e ) {
+                System.out.println("Failed. " + e.getMessage());
+                return -1;
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * @return the exception's message, followed by that of its cause (e.g. the file that could not be found), if any
+     */
+    private static String describe(final Exception e) {
+        return e.getCause() == null ? e.getMessage() : e.getMessage() + "; " + e.getCause();
+    }
+
+    /**
+     * Follow the text source until interrupted, displaying rolling summaries every refresh period.
+     */
+    private Integer follow() throws Exception {
+        if ( refreshSeconds <= 0 ) {
+            System.out.println("Failed. --refresh must be a positive number of seconds");
+            return -1;
+        }
+
+        if ( pathsToTextSources.size() > 1 ) {
+            System.out.println("Failed. --follow takes a single text source");
+            return -1;
+        }
+
+        final Path path;
         try {
-            final MetricsRenderer renderer = new OutputStreamMetricsRenderer(System.out);
-            renderer.renderMetrics(metrics);
+            path = Paths.get(pathsToTextSources.get(0));
         } catch ( Exception e ) {
-            System.out.println("Failed. " + e.getMessage());
+            System.out.println("Failed. --follow requires a local file URI; " + e.getMessage());
             return -1;
         }
 
+        final Duration longestWindow = Duration.ofMinutes(FOLLOW_WINDOWS_IN_MINUTES[FOLLOW_WINDOWS_IN_MINUTES.length - 1]);
+        final WindowedWordCountMetrics metrics = new WindowedWordCountMetrics(FOLLOW_INTERVAL_LENGTH,
+                (int) (longestWindow.toMillis() / FOLLOW_INTERVAL_LENGTH.toMillis()));
+        final MetricsRenderer renderer = format.newRenderer(System.out);
+
+        try (FileFollower follower = new FileFollower(path, metrics::registerWordOccurrenceOfLength)) {
+            long nextSummary = System.currentTimeMillis() + refreshSeconds * 1000L;
+            while ( !Thread.currentThread().isInterrupted() ) {
+                if ( follower.poll() == 0 ) {
+                    Thread.sleep(FOLLOW_POLL_MILLIS);
+                }
+                if ( System.currentTimeMillis() >= nextSummary ) {
+                    for (int minutes : FOLLOW_WINDOWS_IN_MINUTES) {
+                        final String windowName = "Last " + minutes + " minute(s)";
+                        if ( format == MetricsFormat.TEXT ) {
+                            System.out.println(windowName + ":");
+                        }
+                        renderer.renderMetrics(windowName, metrics.getMetricsForLast(Duration.ofMinutes(minutes)));
+                    }
+                    nextSummary += refreshSeconds * 1000L;
+                }
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+
         return 0;
     }
 
-}
\ No newline at end of file
+}
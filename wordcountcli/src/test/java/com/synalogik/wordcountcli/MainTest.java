@@ -3,11 +3,22 @@ package com.synalogik.wordcountcli;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
+import org.junit.contrib.java.lang.system.SystemErrRule;
 import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * A simple integration test, proving that the various parts work together and are callable from Main.
@@ -20,6 +31,12 @@ public class MainTest {
     @Rule
     public final SystemOutRule systemOutRule = new SystemOutRule().enableLog();
 
+    @Rule
+    public final SystemErrRule systemErrRule = new SystemErrRule().enableLog();
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void simpleIntegrationTest() throws URISyntaxException {
         // given
@@ -51,4 +68,143 @@ public class MainTest {
         assertEquals(expectedStdOut, actualStdOut);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void tsvFormatRendersOneLinePerSource() throws URISyntaxException {
+        // given
+        final String pathToTextSource = getClass().getClassLoader().getResource("singleLine.txt").toURI().toString();
+        final String[] args = new String[] {"--format", "tsv", pathToTextSource, pathToTextSource};
+        exitRule.expectSystemExitWithStatus(0);
+
+        // when
+        try {
+            Main.main(args);
+        } catch (Exception e) {
+            // ignore
+        }
+
+        // then
+        final String expectedLine = pathToTextSource + "\t9\t41\t4.556\t2\t4,5\n";
+        assertEquals(expectedLine + expectedLine, systemOutRule.getLog());
+    }
+
+    @Test
+    public void missingSourceIsReportedAndOthersAreStillAnalysed() throws URISyntaxException {
+        // given
+        final String pathToTextSource = getClass().getClassLoader().getResource("singleLine.txt").toURI().toString();
+        final String pathToMissingSource = new File(temporaryFolder.getRoot(), "missing.txt").toURI().toString();
+
+        // when
+        final int exitCode = Main.commandLine(new Main()).execute("--format", "tsv", pathToTextSource, pathToMissingSource, pathToTextSource);
+
+        // then
+        final String expectedLine = pathToTextSource + "\t9\t41\t4.556\t2\t4,5\n";
+        assertEquals(-1, exitCode);
+        assertEquals(expectedLine + expectedLine, systemOutRule.getLog());
+        assertTrue(systemErrRule.getLog().startsWith("Failed. " + pathToMissingSource + ": "));
+    }
+
+    @Test
+    public void vocabularyIsWrittenToGivenFile() throws URISyntaxException {
+        // given
+        final String pathToTextSource = getClass().getClassLoader().getResource("singleLine.txt").toURI().toString();
+        final File vocabularyFile = new File(temporaryFolder.getRoot(), "vocabulary.tsv");
+        final String[] args = new String[] {"--vocab-out", vocabularyFile.getPath(), pathToTextSource, pathToTextSource};
+        exitRule.expectSystemExitWithStatus(0);
+        exitRule.checkAssertionAfterwards(() -> {
+            // then
+            final String expectedVocabulary =
+                    "&\t2\n" +
+                    "18/05/2016\t2\n" +
+                    "Hello\t2\n" +
+                    "The\t2\n" +
+                    "date\t2\n" +
+                    "good\t2\n" +
+                    "is\t2\n" +
+                    "morning\t2\n" +
+                    "world\t2\n";
+            assertEquals(expectedVocabulary, new String(Files.readAllBytes(vocabularyFile.toPath()), "UTF-8"));
+        });
+
+        // when
+        try {
+            Main.main(args);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    @Test
+    public void vocabularyFileInMissingDirectoryFailsBeforeAnalysis() throws URISyntaxException {
+        // given
+        final String pathToTextSource = getClass().getClassLoader().getResource("singleLine.txt").toURI().toString();
+        final File missingDirectory = new File(temporaryFolder.getRoot(), "missing");
+        final String vocabularyFile = new File(missingDirectory, "vocabulary.tsv").getPath();
+
+        // when
+        final int exitCode = Main.commandLine(new Main()).execute("--format", "tsv", "--vocab-out", vocabularyFile, pathToTextSource);
+
+        // then
+        assertEquals(-1, exitCode);
+        assertEquals("Failed. --vocab-out must be in an existing, writable directory; " + missingDirectory.getPath() + "\n", systemOutRule.getLog());
+        assertEquals("", systemErrRule.getLog());
+    }
+
+    @Test
+    public void requestedEngineIsReportedWithStats() throws URISyntaxException {
+        // given
+        final String pathToTextSource = getClass().getClassLoader().getResource("singleLine.txt").toURI().toString();
+        final String[] args = new String[] {"--format", "tsv", "--engine", "mapped", "--stats", pathToTextSource};
+        exitRule.expectSystemExitWithStatus(0);
+        exitRule.checkAssertionAfterwards(() -> {
+            // then
+            assertEquals(pathToTextSource + "\t9\t41\t4.556\t2\t4,5\n", systemOutRule.getLog());
+            assertTrue(systemErrRule.getLog().startsWith(pathToTextSource + ": engine=MAPPED (requested), size=50 bytes, processors="));
+        });
+
+        // when
+        try {
+            Main.main(args);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    @Test
+    public void compressedSourceIsStreamedWhenAnotherEngineIsRequested() throws URISyntaxException, IOException {
+        // given
+        final File compressed = temporaryFolder.newFile("singleLine.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed.toPath()))) {
+            Files.copy(Paths.get(getClass().getClassLoader().getResource("singleLine.txt").toURI()), out);
+        }
+        final String pathToTextSource = compressed.toURI().toString();
+        final String[] args = new String[] {"--format", "tsv", "--engine", "mapped", pathToTextSource};
+        exitRule.expectSystemExitWithStatus(0);
+        exitRule.checkAssertionAfterwards(() -> {
+            // then
+            assertEquals(pathToTextSource + "\t9\t41\t4.556\t2\t4,5\n", systemOutRule.getLog());
+        });
+
+        // when
+        try {
+            Main.main(args);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    @Test
+    public void dashReadsStandardInput() throws URISyntaxException, IOException {
+        // given
+        final byte[] text = Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource("singleLine.txt").toURI()));
+        final Main main = new Main(() -> Channels.newChannel(new ByteArrayInputStream(text)));
+
+        // when
+        final int exitCode = Main.commandLine(main).execute("--format", "tsv", "--stats", "-");
+
+        // then
+        assertEquals(0, exitCode);
+        assertEquals("-\t9\t41\t4.556\t2\t4,5\n", systemOutRule.getLog());
+        assertTrue(systemErrRule.getLog().startsWith("-: engine=STREAMING (standard input), size=unknown, processors="));
+    }
+
+}
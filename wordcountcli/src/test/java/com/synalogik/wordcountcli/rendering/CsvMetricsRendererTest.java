@@ -0,0 +1,67 @@
+package com.synalogik.wordcountcli.rendering;
+
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import com.synalogik.wordcountcore.rendering.CsvMetricsRenderer;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CsvMetricsRendererTest {
+
+    @Test
+    public void emptyWordCountMetricsRenderHeaderOnly() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+
+        // when
+        new CsvMetricsRenderer(sw).renderMetrics(null);
+
+        // then
+        assertThat(sw.toString(), is("source,wordLength,frequency\r\n"));
+    }
+
+    @Test
+    public void headerIsWrittenOnceForSeveralSources() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+        final CsvMetricsRenderer renderer = new CsvMetricsRenderer(sw);
+        final WordCountMetrics wordCountMetrics = new WordCountMetrics();
+        wordCountMetrics.registerWordOccurrenceOfLength(3);
+        wordCountMetrics.registerWordOccurrenceOfLength(3);
+        wordCountMetrics.registerWordOccurrenceOfLength(2);
+
+        // when
+        renderer.renderMetrics("a.txt", wordCountMetrics);
+        renderer.renderMetrics("b,c.txt", wordCountMetrics);
+
+        // then
+        assertThat(sw.toString(), is("source,wordLength,frequency\r\n" +
+                "a.txt,2,1\r\n" +
+                "a.txt,3,2\r\n" +
+                "\"b,c.txt\",2,1\r\n" +
+                "\"b,c.txt\",3,2\r\n"));
+    }
+
+    @Test
+    public void sourceWithNoWordsIsWrittenAsZeroFrequencyRow() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+        final CsvMetricsRenderer renderer = new CsvMetricsRenderer(sw);
+        final WordCountMetrics wordCountMetrics = new WordCountMetrics();
+        wordCountMetrics.registerWordOccurrenceOfLength(2);
+
+        // when
+        renderer.renderMetrics("a.txt", wordCountMetrics);
+        renderer.renderMetrics("empty,file.txt", new WordCountMetrics());
+        renderer.renderMetrics("b.txt", wordCountMetrics);
+
+        // then
+        assertThat(sw.toString(), is("source,wordLength,frequency\r\n" +
+                "a.txt,2,1\r\n" +
+                "\"empty,file.txt\",,0\r\n" +
+                "b.txt,2,1\r\n"));
+    }
+
+}
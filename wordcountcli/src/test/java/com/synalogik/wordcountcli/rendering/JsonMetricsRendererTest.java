@@ -0,0 +1,45 @@
+package com.synalogik.wordcountcli.rendering;
+
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import com.synalogik.wordcountcore.rendering.JsonMetricsRenderer;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonMetricsRendererTest {
+
+    @Test
+    public void emptyWordCountMetricsAreRenderedAsZeroes() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+
+        // when
+        new JsonMetricsRenderer(sw).renderMetrics(new WordCountMetrics());
+
+        // then
+        assertThat(sw.toString(), is("{\"wordCount\":0,\"characterCount\":0,\"averageWordLength\":0,\"highestFrequency\":0," +
+                "\"mostFrequentWordLengths\":[],\"wordLengthFrequencies\":{}}\n"));
+    }
+
+    @Test
+    public void correctObjectForMultipleWords() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+        final WordCountMetrics wordCountMetrics = new WordCountMetrics();
+        wordCountMetrics.registerWordOccurrenceOfLength(10);
+        wordCountMetrics.registerWordOccurrenceOfLength(5);
+        wordCountMetrics.registerWordOccurrenceOfLength(10);
+        wordCountMetrics.registerWordOccurrenceOfLength(5);
+        wordCountMetrics.registerWordOccurrenceOfLength(4);
+
+        // when
+        new JsonMetricsRenderer(sw).renderMetrics("file:///a \"b\".txt", wordCountMetrics);
+
+        // then
+        assertThat(sw.toString(), is("{\"source\":\"file:///a \\\"b\\\".txt\",\"wordCount\":5,\"characterCount\":34,\"averageWordLength\":6.8," +
+                "\"highestFrequency\":2,\"mostFrequentWordLengths\":[5,10],\"wordLengthFrequencies\":{\"4\":1,\"5\":2,\"10\":2}}\n"));
+    }
+
+}
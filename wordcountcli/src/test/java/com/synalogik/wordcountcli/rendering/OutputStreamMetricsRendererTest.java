@@ -86,4 +86,21 @@ public class OutputStreamMetricsRendererTest {
         assertThat(actualSummary, equalTo (expectedSummary));
     }
 
+    @Test
+    public void averageWordLengthIsRoundedHalfEven() {
+        // given
+        final OutputStream sw = new ByteArrayOutputStream();
+        final OutputStreamMetricsRenderer writerMetricsRenderer = new OutputStreamMetricsRenderer(sw);
+        final WordCountMetrics wordCountMetrics = new WordCountMetrics();
+        // 2000 words totalling 2003 characters; an average of exactly 1.0015
+        wordCountMetrics.registerWordOccurrencesOfLength(1, 1997);
+        wordCountMetrics.registerWordOccurrencesOfLength(2, 3);
+
+        // when
+        writerMetricsRenderer.renderMetrics(wordCountMetrics);
+
+        // then
+        assertThat(sw.toString().split("\n")[1], equalTo("Average word length = 1.002"));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.synalogik.wordcountcli.rendering;
+
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import com.synalogik.wordcountcore.rendering.TsvMetricsRenderer;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TsvMetricsRendererTest {
+
+    @Test
+    public void emptyWordCountMetricsAreRenderedAsZeroes() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+
+        // when
+        new TsvMetricsRenderer(sw).renderMetrics("empty.txt", new WordCountMetrics());
+
+        // then
+        assertThat(sw.toString(), is("empty.txt\t0\t0\t0\t0\t\n"));
+    }
+
+    @Test
+    public void oneLinePerSource() {
+        // given
+        final ByteArrayOutputStream sw = new ByteArrayOutputStream();
+        final TsvMetricsRenderer renderer = new TsvMetricsRenderer(sw);
+        final WordCountMetrics wordCountMetrics = new WordCountMetrics();
+        wordCountMetrics.registerWordOccurrenceOfLength(1);
+        wordCountMetrics.registerWordOccurrenceOfLength(2);
+        wordCountMetrics.registerWordOccurrenceOfLength(2);
+
+        // when
+        renderer.renderMetrics("a.txt", wordCountMetrics);
+        renderer.renderMetrics("b\tc.txt", wordCountMetrics);
+
+        // then
+        assertThat(sw.toString(), is("a.txt\t3\t5\t1.667\t2\t2\n" +
+                "b c.txt\t3\t5\t1.667\t2\t2\n"));
+    }
+
+}
@@ -18,25 +18,25 @@ public class BufferedWordCounter implements WordCounter {
     /**
      * Analyse text sourced from the given URI path
      * @param pathToSource URI of text to process
+     * @param metrics WordCountMetrics in which to record the analysis
      * @return WordCountMetrics of the full text analysis
      * @see WordCountMetrics
      */
     @Override
-    public WordCountMetrics analyseText(final URI pathToSource) {
+    public WordCountMetrics analyseText(final URI pathToSource, final WordCountMetrics metrics) {
         if ( pathToSource == null ) {
             throw new WordCounterException("Invalid pathToSource; must be non-null");
         }
-        return processText(pathToSource);
+        return processText(pathToSource, metrics);
     }
 
     /**
      * Process given URI, analysing each line of text in parallel (for scalability)
      * @param pathToSource URI path to be analysed
+     * @param metrics WordCountMetrics in which to record the analysis
      * @return WordCountMetrics relating to the given URI
      */
-    private WordCountMetrics processText(final URI pathToSource) {
-
-        final WordCountMetrics metrics = new WordCountMetrics();
+    private WordCountMetrics processText(final URI pathToSource, final WordCountMetrics metrics) {
 
         try (BufferedReader br = new BufferedReader(new InputStreamReader(pathToSource.toURL().openStream()))) {
             br.lines().parallel().forEach(line -> analyseLineOfText(metrics, line));
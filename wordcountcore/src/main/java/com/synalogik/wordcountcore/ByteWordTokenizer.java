@@ -0,0 +1,312 @@
+package com.synalogik.wordcountcore;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits a stream of UTF-8 encoded bytes into words, applying the same delimiter rules as {@link WordSplitter}, but without decoding the bytes into Strings.
+ * State is carried between calls to {@link #feed(ByteBuffer)}, so a word may span buffer boundaries; call {@link #finish()} at the end of the stream.
+ * Word lengths are reported in UTF-16 code units, i.e. the same value String.length() would give for the decoded word.
+ * Optionally the bytes of each word can also be reported, via a {@link WordConsumer}.
+ * <p>
+ * ASCII text is scanned eight bytes at a time (SWAR: SIMD within a register), finding every delimiter in a long with a few bitwise operations,
+ * and taking word lengths from the distance between delimiters. Blocks containing other bytes, and the digit checks that commas and periods require,
+ * fall back to classifying one byte at a time. Setting the system property <code>wordcount.tokenizer.swar=false</code> forces the byte at a time path throughout;
+ * ByteWordTokenizerBenchmark (in the test sources) compares the two.
+ * <p>
+ * Only the 8 byte step is implemented. A long is the widest value Java 8 can compare lane by lane; scanning 16 or 32 bytes at a time would need the Vector API,
+ * which is still an incubator module and not available to the Java 8 target. Unrolling two or four longs per step was not pursued either, as the per word work
+ * (reporting lengths, copying bytes to a vocabulary) rather than the delimiter scan dominates once words average under 8 bytes.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class ByteWordTokenizer {
+
+    /**
+     * Notified of each word found, along with its UTF-8 encoded bytes.
+     */
+    public interface WordConsumer {
+        /**
+         * @param utf8 buffer holding the word; only valid for the duration of the call
+         * @param offset start of the word within the buffer
+         * @param length number of bytes in the word
+         * @param wordLength length of the word, in UTF-16 code units
+         */
+        void acceptWord(byte[] utf8, int offset, int length, int wordLength);
+    }
+
+    private static final byte WORD = 0;
+    private static final byte DIGIT = 1;
+    private static final byte DELIMITER = 2;
+    private static final byte SEPARATOR = 3;        // comma or period; only a delimiter when not between two digits
+    private static final byte CONTINUATION = 4;     // UTF-8 continuation byte; part of the preceding character
+    private static final byte SURROGATE_PAIR = 5;   // UTF-8 lead byte of a supplementary character; two UTF-16 code units
+
+    private static final byte[] BYTE_CLASSES = new byte[256];
+
+    private static final boolean SWAR_ENABLED = !"false".equalsIgnoreCase(System.getProperty("wordcount.tokenizer.swar"));
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    static {
+        for (int b = '0'; b <= '9'; b++) {
+            BYTE_CLASSES[b] = DIGIT;
+        }
+        for (char delimiter : " \t\n\u000B\f\r!?:;".toCharArray()) {
+            BYTE_CLASSES[delimiter] = DELIMITER;
+        }
+        BYTE_CLASSES[','] = SEPARATOR;
+        BYTE_CLASSES['.'] = SEPARATOR;
+        for (int b = 0x80; b <= 0xBF; b++) {
+            BYTE_CLASSES[b] = CONTINUATION;
+        }
+        for (int b = 0xF0; b <= 0xF7; b++) {
+            BYTE_CLASSES[b] = SURROGATE_PAIR;
+        }
+    }
+
+    private final IntConsumer wordLengthConsumer;
+    private final WordConsumer wordConsumer;
+    private final boolean swar;
+
+    private int wordLength;
+    private boolean previousWasDigit;
+    private boolean pendingSeparator;
+    private byte pendingSeparatorByte;
+    private byte[] wordBytes;
+    private int wordByteCount;
+
+    /**
+     * @param wordLengthConsumer notified of the length of each word found
+     */
+    public ByteWordTokenizer(final IntConsumer wordLengthConsumer) {
+        this(wordLengthConsumer, SWAR_ENABLED);
+    }
+
+    ByteWordTokenizer(final IntConsumer wordLengthConsumer, final boolean swar) {
+        this.wordLengthConsumer = wordLengthConsumer;
+        this.wordConsumer = null;
+        this.swar = swar;
+    }
+
+    /**
+     * Report the bytes of each word as well as its length. Words are accumulated in a buffer, so they may be reported whole even when spanning buffer boundaries.
+     * @param wordConsumer notified of each word found
+     */
+    public ByteWordTokenizer(final WordConsumer wordConsumer) {
+        this(wordConsumer, SWAR_ENABLED);
+    }
+
+    ByteWordTokenizer(final WordConsumer wordConsumer, final boolean swar) {
+        this.wordLengthConsumer = null;
+        this.wordConsumer = wordConsumer;
+        this.wordBytes = new byte[64];
+        this.swar = swar;
+    }
+
+    /**
+     * Tokenize the remaining bytes of the given buffer. On return the buffer's position will equal its limit.
+     * @param bytes UTF-8 encoded text
+     */
+    public void feed(final ByteBuffer bytes) {
+        int i = bytes.position();
+        final int end = bytes.limit();
+
+        if ( swar ) {
+            final boolean bigEndian = bytes.order() == ByteOrder.BIG_ENDIAN;
+            for (; i <= end - 8; i += 8) {
+                final long block = bigEndian ? Long.reverseBytes(bytes.getLong(i)) : bytes.getLong(i);
+                if ( (block & HIGH_BITS) == 0 ) {
+                    acceptAsciiBlock(block);
+                } else {
+                    for (int j = i; j < i + 8; j++) {
+                        accept(bytes.get(j));
+                    }
+                }
+            }
+        }
+
+        for (; i < end; i++) {
+            accept(bytes.get(i));
+        }
+        ((Buffer) bytes).position(end);
+    }
+
+    /**
+     * Mark the end of the stream, reporting any word still in progress.
+     * The tokenizer may be reused for a new stream afterwards.
+     */
+    public void finish() {
+        pendingSeparator = false;
+        previousWasDigit = false;
+        endWord();
+    }
+
+    /**
+     * Is the given byte a delimiter whatever surrounds it? Text may be split after such a byte without changing the words found.
+     * UTF-8 never uses ASCII values within multi-byte characters, so such a split also never divides a character.
+     */
+    static boolean isDelimiter(final byte b) {
+        return BYTE_CLASSES[b & 0xFF] == DELIMITER;
+    }
+
+    /**
+     * Tokenize eight ASCII bytes, given least significant byte first
+     */
+    private void acceptAsciiBlock(final long block) {
+        if ( !pendingSeparator && lessThan(block, '@') == 0 ) {
+            // letters and symbols only; every delimiter, comma, period and digit is below '@'
+            wordLength += 8;
+            appendWordBytes(block, 0, 8);
+            previousWasDigit = false;
+            return;
+        }
+
+        long delimiters = delimiterMask(block);
+        int start = 0;
+
+        while ( start < 8 ) {
+            if ( pendingSeparator ) {
+                // the byte after a comma or period decides whether it is a delimiter
+                accept(byteAt(block, start));
+                delimiters &= ~(0xFFL << (start << 3));
+                start++;
+            } else if ( delimiters == 0 ) {
+                acceptWordBytes(block, start, 8);
+                return;
+            } else {
+                final int delimiter = Long.numberOfTrailingZeros(delimiters) >>> 3;
+                delimiters &= delimiters - 1;
+                acceptWordBytes(block, start, delimiter);
+                final byte b = byteAt(block, delimiter);
+                if ( BYTE_CLASSES[b] == DELIMITER ) {
+                    endWord();
+                    previousWasDigit = false;
+                } else {
+                    accept(b);
+                }
+                start = delimiter + 1;
+            }
+        }
+    }
+
+    /**
+     * Add a run of bytes from a block, known to contain no delimiter, comma or period, to the current word
+     */
+    private void acceptWordBytes(final long block, final int from, final int to) {
+        if ( to > from ) {
+            wordLength += to - from;
+            appendWordBytes(block, from, to);
+            previousWasDigit = BYTE_CLASSES[byteAt(block, to - 1)] == DIGIT;
+        }
+    }
+
+    private void appendWordBytes(final long block, final int from, final int to) {
+        if ( wordConsumer != null ) {
+            for (int i = from; i < to; i++) {
+                appendWordByte(byteAt(block, i));
+            }
+        }
+    }
+
+    private static byte byteAt(final long block, final int index) {
+        return (byte) (block >>> (index << 3));
+    }
+
+    /**
+     * Find the delimiters, commas and periods in eight ASCII bytes
+     * @return a mask with the high bit set in each byte that is a delimiter, comma or period
+     */
+    private static long delimiterMask(final long block) {
+        return inRange(block, '\t', '\r')
+                | inRange(block, ' ', '!')
+                | inRange(block, ':', ';')
+                | equalTo(block, ',')
+                | equalTo(block, '.')
+                | equalTo(block, '?');
+    }
+
+    private static long inRange(final long block, final int from, final int to) {
+        return lessThan(block, to + 1) & ~lessThan(block, from);
+    }
+
+    private static long equalTo(final long block, final int value) {
+        return lessThan(block ^ (value * ONES), 1);
+    }
+
+    /**
+     * @return a mask with the high bit set in each byte less than n; exact for bytes below 0x80 and n no more than 0x80, as no borrow can cross bytes
+     */
+    private static long lessThan(final long block, final int n) {
+        return ~((block | HIGH_BITS) - n * ONES) & HIGH_BITS;
+    }
+
+    private void accept(final byte b) {
+        final byte byteClass = BYTE_CLASSES[b & 0xFF];
+
+        if ( pendingSeparator ) {
+            // a comma or period following a digit; it is only part of the word if this byte is also a digit
+            pendingSeparator = false;
+            if ( byteClass == DIGIT ) {
+                wordLength++;
+                appendWordByte(pendingSeparatorByte);
+            } else {
+                endWord();
+            }
+        }
+
+        switch (byteClass) {
+            case DELIMITER:
+                endWord();
+                previousWasDigit = false;
+                break;
+            case SEPARATOR:
+                if ( previousWasDigit ) {
+                    pendingSeparator = true;
+                    pendingSeparatorByte = b;
+                } else {
+                    endWord();
+                }
+                previousWasDigit = false;
+                break;
+            case CONTINUATION:
+                appendWordByte(b);
+                previousWasDigit = false;
+                break;
+            case SURROGATE_PAIR:
+                appendWordByte(b);
+                wordLength += 2;
+                previousWasDigit = false;
+                break;
+            default:
+                appendWordByte(b);
+                wordLength++;
+                previousWasDigit = byteClass == DIGIT;
+        }
+    }
+
+    private void appendWordByte(final byte b) {
+        if ( wordConsumer != null ) {
+            if ( wordByteCount == wordBytes.length ) {
+                wordBytes = Arrays.copyOf(wordBytes, wordByteCount * 2);
+            }
+            wordBytes[wordByteCount++] = b;
+        }
+    }
+
+    private void endWord() {
+        if ( wordLength > 0 ) {
+            if ( wordConsumer != null ) {
+                wordConsumer.acceptWord(wordBytes, 0, wordByteCount, wordLength);
+            } else {
+                wordLengthConsumer.accept(wordLength);
+            }
+            wordLength = 0;
+        }
+        wordByteCount = 0;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.synalogik.wordcountcore;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of equally sized direct ByteBuffers.
+ * Direct buffers let channels read straight into native memory, without copying through a heap array, but are costly to allocate and only freed when collected,
+ * so they are reused across sources rather than allocated for each one.
+ * Buffers are little endian, so that {@link ByteWordTokenizer} can read them a long at a time without reordering bytes.
+ * <p>
+ * The pool is thread safe. When empty, a new buffer is allocated; when full, released buffers are left for collection.
+ */
+class DirectBufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * @param bufferSize capacity of each buffer, in bytes
+     * @param maximumPooled maximum number of idle buffers kept for reuse
+     */
+    DirectBufferPool(final int bufferSize, final int maximumPooled) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maximumPooled);
+    }
+
+    /**
+     * @return an empty buffer, for the caller's exclusive use until released
+     */
+    ByteBuffer acquire() {
+        final ByteBuffer buffer = buffers.poll();
+        if ( buffer == null ) {
+            return ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool; the caller must not use it afterwards
+     */
+    void release(final ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+
+}
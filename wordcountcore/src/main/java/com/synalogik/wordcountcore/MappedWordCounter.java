@@ -0,0 +1,145 @@
+package com.synalogik.wordcountcore;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.lang.String.format;
+
+/**
+ * A memory mapped, chunk parallel implementation of a WordCounter, for large local files.
+ * The file is divided into chunks of roughly equal size, each ending just after a delimiter so that no word spans two chunks.
+ * Chunks are then memory mapped and tokenized in parallel, each by its own {@link ByteWordTokenizer}, and their metrics merged.
+ * Only local (file:) URIs of regular files are supported. Text is assumed to be UTF-8 encoded.
+ *
+ * @see WordCounter
+ */
+public class MappedWordCounter implements WordCounter {
+
+    private static final int MINIMUM_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int MAXIMUM_CHUNK_SIZE = 256 * 1024 * 1024;
+    private static final int PROBE_SIZE = 4096;
+
+    private final int parallelism;
+    private final int minimumChunkSize;
+
+    /**
+     * Divide files between the available processors
+     */
+    public MappedWordCounter() {
+        this(Runtime.getRuntime().availableProcessors(), MINIMUM_CHUNK_SIZE);
+    }
+
+    MappedWordCounter(final int parallelism, final int minimumChunkSize) {
+        this.parallelism = parallelism;
+        this.minimumChunkSize = minimumChunkSize;
+    }
+
+    /**
+     * Analyse text sourced from the given URI path
+     * @param pathToSource URI of a local file to process
+     * @param metrics WordCountMetrics in which to record the analysis
+     * @return WordCountMetrics of the full text analysis
+     * @see WordCountMetrics
+     */
+    @Override
+    public WordCountMetrics analyseText(final URI pathToSource, final WordCountMetrics metrics) {
+        if ( pathToSource == null ) {
+            throw new WordCounterException("Invalid pathToSource; must be non-null");
+        }
+        if ( !"file".equalsIgnoreCase(pathToSource.getScheme()) ) {
+            throw new WordCounterException(format("Invalid pathToSource [%s]; must be a local file uri", pathToSource));
+        }
+
+        final Path path = Paths.get(pathToSource);
+        if ( !Files.isRegularFile(path) ) {
+            // e.g. a named pipe, which has no size to divide, and cannot be mapped
+            throw new WordCounterException(format("Invalid pathToSource [%s]; must be a regular file", pathToSource));
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long[] boundaries = chunkBoundaries(channel);
+            IntStream.range(0, boundaries.length - 1)
+                    .parallel()
+                    .forEach(chunk -> analyseChunk(channel, boundaries[chunk], boundaries[chunk + 1], metrics));
+        } catch (Exception e) {
+            throw new WordCounterException(format("Failed to analyse given uri [%s]", pathToSource), e);
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Divide the file into about four chunks per thread (so that threads finishing early can pick up the slack), each ending just after a delimiter
+     * @return the start of each chunk, followed by the size of the file
+     */
+    private long[] chunkBoundaries(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final long chunkSize = Math.min(MAXIMUM_CHUNK_SIZE, Math.max(minimumChunkSize, size / (parallelism * 4L)));
+        final ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        final List<Long> boundaries = new ArrayList<>();
+
+        long boundary = 0;
+        while ( boundary < size ) {
+            boundaries.add(boundary);
+            boundary = followingDelimiter(channel, boundary + chunkSize, probe);
+        }
+        boundaries.add(size);
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * @return the position just after the first delimiter at or beyond the given position, or the size of the file if there is none
+     */
+    private static long followingDelimiter(final FileChannel channel, final long from, final ByteBuffer probe) throws IOException {
+        long position = from;
+        int read;
+        while ( (read = channel.read((ByteBuffer) ((Buffer) probe).clear(), position)) > 0 ) {
+            for (int i = 0; i < read; i++) {
+                if ( ByteWordTokenizer.isDelimiter(probe.get(i)) ) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return Math.max(from, channel.size());
+    }
+
+    /**
+     * Tokenize one chunk, mapping it a window at a time in case a single word makes it too big to map at once
+     */
+    private void analyseChunk(final FileChannel channel, final long start, final long end, final WordCountMetrics metrics) {
+        // when counting lengths only, count locally and merge once, rather than contending on the shared metrics for every word;
+        // a vocabulary cannot be divided so, and is shared by every chunk (which is why WordCounterFactory streams sources that record one)
+        final WordCountMetrics chunkMetrics = metrics.hasVocabulary() ? metrics : new WordCountMetrics();
+        final ByteWordTokenizer tokenizer = metrics.hasVocabulary()
+                ? new ByteWordTokenizer((utf8, offset, length, wordLength) -> metrics.registerWordOccurrence(utf8, offset, length, wordLength))
+                : new ByteWordTokenizer(chunkMetrics::registerWordOccurrenceOfLength);
+
+        try {
+            for (long position = start; position < end; position += MAXIMUM_CHUNK_SIZE) {
+                tokenizer.feed(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAXIMUM_CHUNK_SIZE, end - position)));
+            }
+        } catch (IOException e) {
+            throw new WordCounterException(format("Failed to map bytes %d to %d", start, end), e);
+        }
+        tokenizer.finish();
+
+        if ( chunkMetrics != metrics ) {
+            metrics.merge(chunkMetrics);
+        }
+    }
+
+}
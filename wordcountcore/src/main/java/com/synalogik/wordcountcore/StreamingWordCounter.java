@@ -0,0 +1,162 @@
+package com.synalogik.wordcountcore;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static java.lang.String.format;
+
+/**
+ * A sequential, byte oriented implementation of a WordCounter.
+ * Text is read from a {@link ReadableByteChannel} into pooled direct buffers, and passed straight to a {@link ByteWordTokenizer},
+ * so no lines or Strings are created, no charset decoding is done, and memory use does not depend on the size of the text.
+ * When the metrics record a vocabulary, each word's bytes are passed on to it directly.
+ * <p>
+ * Local files, including named pipes, are read through a FileChannel. The URI {@link #STANDARD_INPUT} (<code>-</code>) reads standard input, so text can be piped in from other commands.
+ * By default that is the process's standard input (file descriptor 0), read through a FileChannel in the same way; bypassing System.in avoids copying through its buffers,
+ * so a redirected System.in is not seen. Another channel, e.g. for an embedding application or a test, can be supplied on construction.
+ * Text is assumed to be UTF-8 encoded. Sources whose path ends in <code>.gz</code> are decompressed as they are read.
+ *
+ * @see WordCounter
+ */
+public class StreamingWordCounter implements WordCounter {
+
+    /**
+     * The URI of standard input
+     */
+    public static final URI STANDARD_INPUT = URI.create("-");
+
+    /**
+     * Supplies the process's standard input (file descriptor 0) as a channel
+     */
+    public static final Supplier<ReadableByteChannel> PROCESS_STANDARD_INPUT = () -> new FileInputStream(FileDescriptor.in).getChannel();
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final DirectBufferPool BUFFERS = new DirectBufferPool(BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+
+    private final Supplier<ReadableByteChannel> standardInput;
+
+    /**
+     * Read {@link #STANDARD_INPUT} from the process's standard input
+     */
+    public StreamingWordCounter() {
+        this(PROCESS_STANDARD_INPUT);
+    }
+
+    /**
+     * @param standardInput supplies the channel read for {@link #STANDARD_INPUT}; the channel is not closed
+     */
+    public StreamingWordCounter(final Supplier<ReadableByteChannel> standardInput) {
+        if ( standardInput == null ) {
+            throw new WordCounterException("Invalid standardInput; must be non-null");
+        }
+        this.standardInput = standardInput;
+    }
+
+    /**
+     * Analyse text sourced from the given URI path
+     * @param pathToSource URI of text to process, or {@link #STANDARD_INPUT}
+     * @param metrics WordCountMetrics in which to record the analysis
+     * @return WordCountMetrics of the full text analysis
+     * @see WordCountMetrics
+     */
+    @Override
+    public WordCountMetrics analyseText(final URI pathToSource, final WordCountMetrics metrics) {
+        if ( pathToSource == null ) {
+            throw new WordCounterException("Invalid pathToSource; must be non-null");
+        }
+
+        try {
+            if ( isStandardInput(pathToSource) ) {
+                // standard input belongs to the process (or whoever supplied it), so is left open
+                tokenize(standardInput.get(), metrics);
+            } else {
+                try (ReadableByteChannel channel = openChannel(pathToSource)) {
+                    tokenize(channel, metrics);
+                }
+            }
+        } catch (Exception e) {
+            throw new WordCounterException(format("Failed to analyse given uri [%s]", pathToSource), e);
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Analyse text read from the given channel, until it reaches end of stream. The channel is not closed.
+     * @param channel blocking channel of UTF-8 encoded text
+     * @param metrics WordCountMetrics in which to record the analysis
+     * @return WordCountMetrics of the full text analysis
+     */
+    public WordCountMetrics analyseChannel(final ReadableByteChannel channel, final WordCountMetrics metrics) {
+        if ( channel == null ) {
+            throw new WordCounterException("Invalid channel; must be non-null");
+        }
+
+        try {
+            tokenize(channel, metrics);
+        } catch (IOException e) {
+            throw new WordCounterException("Failed to analyse given channel", e);
+        }
+
+        return metrics;
+    }
+
+    private static void tokenize(final ReadableByteChannel channel, final WordCountMetrics metrics) throws IOException {
+        final ByteWordTokenizer tokenizer = metrics.hasVocabulary()
+                ? new ByteWordTokenizer((utf8, offset, length, wordLength) -> metrics.registerWordOccurrence(utf8, offset, length, wordLength))
+                : new ByteWordTokenizer(metrics::registerWordOccurrenceOfLength);
+        final ByteBuffer buffer = BUFFERS.acquire();
+
+        try {
+            while ( channel.read(buffer) >= 0 ) {
+                ((Buffer) buffer).flip();
+                tokenizer.feed(buffer);
+                ((Buffer) buffer).clear();
+            }
+            tokenizer.finish();
+        } finally {
+            BUFFERS.release(buffer);
+        }
+    }
+
+    private static ReadableByteChannel openChannel(final URI pathToSource) throws IOException {
+        if ( "file".equalsIgnoreCase(pathToSource.getScheme()) && !isCompressed(pathToSource) ) {
+            return FileChannel.open(Paths.get(pathToSource), StandardOpenOption.READ);
+        }
+
+        final InputStream in = pathToSource.toURL().openStream();
+        if ( !isCompressed(pathToSource) ) {
+            return Channels.newChannel(in);
+        }
+        try {
+            return Channels.newChannel(new GZIPInputStream(in, BLOCK_SIZE));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    static boolean isStandardInput(final URI pathToSource) {
+        return STANDARD_INPUT.equals(pathToSource);
+    }
+
+    static boolean isCompressed(final URI pathToSource) {
+        final String path = pathToSource.getPath();
+        return path != null && path.toLowerCase().endsWith(".gz");
+    }
+
+}
@@ -13,7 +13,15 @@ public interface WordCounter {
     /**
      * A WordCountMetrics object should be returned containing metrics about the words counted, for a given text file URI.
      */
-    WordCountMetrics analyseText(URI pathToSource);
+    default WordCountMetrics analyseText(URI pathToSource) {
+        return analyseText(pathToSource, new WordCountMetrics());
+    }
+
+    /**
+     * Analyse the text of the given URI, recording its words in the given {@link WordCountMetrics}, e.g. one recording a vocabulary, or shared between sources.
+     * @return the given metrics
+     */
+    WordCountMetrics analyseText(URI pathToSource, WordCountMetrics metrics);
 
     /**
      * Default logic for analysing a String, i.e. splitting out words, and for each word recording word length details in the given {@link WordCountMetrics}
@@ -23,7 +31,7 @@ public interface WordCounter {
     default void analyseLineOfText(WordCountMetrics metrics, String lineOfText) {
         if ( lineOfText != null ) {
             wordsFromString(lineOfText)
-                    .forEach(word -> metrics.registerWordOccurrenceOfLength(word.length()));
+                    .forEach(metrics::registerWordOccurrence);
         }
     }
 
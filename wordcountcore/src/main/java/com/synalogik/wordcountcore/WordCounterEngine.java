@@ -0,0 +1,36 @@
+package com.synalogik.wordcountcore;
+
+import java.util.function.Supplier;
+
+/**
+ * The implementations of WordCounter available, from which {@link WordCounterFactory} chooses one per source.
+ */
+public enum WordCounterEngine {
+
+    /**
+     * Lines of text analysed in parallel; see {@link BufferedWordCounter}
+     */
+    BUFFERED(BufferedWordCounter::new),
+    /**
+     * Bytes tokenized sequentially as they are read; see {@link StreamingWordCounter}
+     */
+    STREAMING(StreamingWordCounter::new),
+    /**
+     * Chunks of a memory mapped local file tokenized in parallel; see {@link MappedWordCounter}
+     */
+    MAPPED(MappedWordCounter::new);
+
+    private final Supplier<WordCounter> wordCounterFactory;
+
+    WordCounterEngine(Supplier<WordCounter> wordCounterFactory) {
+        this.wordCounterFactory = wordCounterFactory;
+    }
+
+    /**
+     * Create a WordCounter using this engine
+     */
+    public WordCounter newWordCounter() {
+        return wordCounterFactory.get();
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.synalogik.wordcountcore;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Chooses the WordCounter best suited to a source, from its URI scheme, size and compression, and the number of processors available:
+ * <ul>
+ *     <li>standard input (<code>-</code>) and compressed (<code>.gz</code>) sources are always read by the {@link WordCounterEngine#STREAMING} engine, the only one able to read or decompress them</li>
+ *     <li>anything else other than a local regular file (e.g. a web address, or a named pipe) is also read by the {@link WordCounterEngine#STREAMING} engine, as it can only be read once, in order</li>
+ *     <li>so are small files, and any file when only one processor is available, as they would gain nothing from the overhead of parallel processing</li>
+ *     <li>so is any file while a vocabulary is recorded, as every word then goes to the one shared dictionary, and parallel chunks would only queue for it</li>
+ *     <li>any other local file is read by the chunk parallel {@link WordCounterEngine#MAPPED} engine</li>
+ * </ul>
+ * The choice, and the reason for it, is described by a {@link Plan}.
+ */
+public class WordCounterFactory {
+
+    /**
+     * Files smaller than this are read sequentially
+     */
+    public static final long SMALL_SOURCE_SIZE = 1024 * 1024;
+
+    private final int availableProcessors;
+    private final Supplier<ReadableByteChannel> standardInput;
+
+    /**
+     * Choose according to the processors available to this JVM, reading standard input from the process
+     */
+    public WordCounterFactory() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param availableProcessors number of processors to plan for
+     */
+    public WordCounterFactory(final int availableProcessors) {
+        this(availableProcessors, StreamingWordCounter.PROCESS_STANDARD_INPUT);
+    }
+
+    /**
+     * @param availableProcessors number of processors to plan for
+     * @param standardInput supplies the channel read for {@link StreamingWordCounter#STANDARD_INPUT}
+     */
+    public WordCounterFactory(final int availableProcessors, final Supplier<ReadableByteChannel> standardInput) {
+        if ( availableProcessors <= 0 ) {
+            throw new WordCounterException("Invalid availableProcessors; must be positive");
+        }
+        if ( standardInput == null ) {
+            throw new WordCounterException("Invalid standardInput; must be non-null");
+        }
+        this.availableProcessors = availableProcessors;
+        this.standardInput = standardInput;
+    }
+
+    /**
+     * Choose the engine best suited to the given source
+     * @param pathToSource URI of text to process
+     * @return Plan describing the chosen engine
+     */
+    public Plan plan(final URI pathToSource) {
+        return plan(pathToSource, null);
+    }
+
+    /**
+     * Plan to use the given engine for the given source, or if none is given, choose the engine best suited to it. Standard input and compressed sources are always streamed, whatever engine is requested.
+     * @param pathToSource URI of text to process
+     * @param requestedEngine engine to use; may be null
+     * @return Plan describing the engine to use
+     */
+    public Plan plan(final URI pathToSource, final WordCounterEngine requestedEngine) {
+        return plan(pathToSource, requestedEngine, false);
+    }
+
+    /**
+     * Plan to use the given engine for the given source, or if none is given, choose the engine best suited to it. Standard input and compressed sources are always streamed, whatever engine is requested.
+     * @param pathToSource URI of text to process
+     * @param requestedEngine engine to use; may be null
+     * @param recordingVocabulary whether each word will be recorded in a vocabulary, as well as its length
+     * @return Plan describing the engine to use
+     */
+    public Plan plan(final URI pathToSource, final WordCounterEngine requestedEngine, final boolean recordingVocabulary) {
+        if ( pathToSource == null ) {
+            throw new WordCounterException("Invalid pathToSource; must be non-null");
+        }
+
+        if ( StreamingWordCounter.isStandardInput(pathToSource) ) {
+            return new Plan(WordCounterEngine.STREAMING, "standard input", -1, availableProcessors);
+        }
+
+        final Path path = localPath(pathToSource);
+        final long size = path != null && Files.isRegularFile(path) ? sizeOf(path) : -1;
+
+        if ( StreamingWordCounter.isCompressed(pathToSource) ) {
+            return new Plan(WordCounterEngine.STREAMING, "compressed", size, availableProcessors);
+        }
+
+        if ( requestedEngine != null ) {
+            return new Plan(requestedEngine, "requested", size, availableProcessors);
+        }
+        if ( path == null ) {
+            return new Plan(WordCounterEngine.STREAMING, "not a local file", size, availableProcessors);
+        }
+        if ( size < 0 ) {
+            return new Plan(WordCounterEngine.STREAMING, "not a regular file", size, availableProcessors);
+        }
+        if ( size < SMALL_SOURCE_SIZE ) {
+            return new Plan(WordCounterEngine.STREAMING, "small file", size, availableProcessors);
+        }
+        if ( availableProcessors == 1 ) {
+            return new Plan(WordCounterEngine.STREAMING, "single processor", size, availableProcessors);
+        }
+        if ( recordingVocabulary ) {
+            return new Plan(WordCounterEngine.STREAMING, "vocabulary", size, availableProcessors);
+        }
+        return new Plan(WordCounterEngine.MAPPED, "large local file", size, availableProcessors);
+    }
+
+    /**
+     * Create a WordCounter using the planned engine; a streaming one reads standard input from this factory's supplier
+     * @param plan Plan returned by this factory
+     * @return WordCounter to analyse the planned source
+     */
+    public WordCounter newWordCounter(final Plan plan) {
+        if ( plan == null ) {
+            throw new WordCounterException("Invalid plan; must be non-null");
+        }
+        return plan.getEngine() == WordCounterEngine.STREAMING ? new StreamingWordCounter(standardInput) : plan.getEngine().newWordCounter();
+    }
+
+    private static Path localPath(final URI pathToSource) {
+        if ( !"file".equalsIgnoreCase(pathToSource.getScheme()) ) {
+            return null;
+        }
+        try {
+            return Paths.get(pathToSource);
+        } catch (Exception e) {
+            throw new WordCounterException(format("Invalid pathToSource [%s]", pathToSource), e);
+        }
+    }
+
+    private static long sizeOf(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (Exception e) {
+            // unreadable; leave the chosen engine to report the failure
+            return -1;
+        }
+    }
+
+    /**
+     * The engine chosen for a source, and why.
+     */
+    public static class Plan {
+
+        private final WordCounterEngine engine;
+        private final String reason;
+        private final long sourceSize;
+        private final int availableProcessors;
+
+        Plan(final WordCounterEngine engine, final String reason, final long sourceSize, final int availableProcessors) {
+            this.engine = engine;
+            this.reason = reason;
+            this.sourceSize = sourceSize;
+            this.availableProcessors = availableProcessors;
+        }
+
+        public WordCounterEngine getEngine() {
+            return engine;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * @return long size of the source in bytes, or -1 if unknown before reading it
+         */
+        public long getSourceSize() {
+            return sourceSize;
+        }
+
+        public int getAvailableProcessors() {
+            return availableProcessors;
+        }
+
+        @Override
+        public String toString() {
+            return format("engine=%s (%s), size=%s, processors=%d",
+                    engine, reason, sourceSize < 0 ? "unknown" : sourceSize + " bytes", availableProcessors);
+        }
+    }
+
+}
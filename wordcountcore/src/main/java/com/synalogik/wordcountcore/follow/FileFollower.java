@@ -0,0 +1,134 @@
+package com.synalogik.wordcountcore.follow;
+
+import com.synalogik.wordcountcore.ByteWordTokenizer;
+import com.synalogik.wordcountcore.exception.WordCounterException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * Follows a growing text file, in the manner of <code>tail -F</code>, reporting the length of each word appended to it.
+ * Following starts from the current end of the file. Rotation (the file being replaced by a new one) is detected by a change of file key,
+ * in which case any remaining bytes of the old file are read before the new file is read from the start; truncation is treated likewise.
+ * Bytes are tokenized as they are read, using a fixed size buffer, so memory use does not depend on file size or line length.
+ * Call {@link #poll()} periodically to pick up new data. Instances are not thread safe.
+ */
+public class FileFollower implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final ByteWordTokenizer tokenizer;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private boolean skipExistingContent = true;
+
+    /**
+     * @param path file to follow; it need not exist yet
+     * @param wordLengthConsumer notified of the length of each word read
+     */
+    public FileFollower(final Path path, final IntConsumer wordLengthConsumer) {
+        this.path = path;
+        this.tokenizer = new ByteWordTokenizer(wordLengthConsumer);
+    }
+
+    /**
+     * Read and tokenize any bytes appended since the last poll
+     * @return number of bytes read
+     */
+    public long poll() {
+        try {
+            long bytesRead = 0;
+
+            if ( channel != null && (isReplaced() || channel.size() < position) ) {
+                // rotated or truncated; finish the old file before moving on to the new one
+                bytesRead += readToEnd();
+                tokenizer.finish();
+                closeChannel();
+            }
+
+            if ( channel == null ) {
+                final boolean opened = open();
+                // only the file present when following starts is skipped; a file appearing later is all new data
+                skipExistingContent = false;
+                if ( !opened ) {
+                    return bytesRead;
+                }
+            }
+
+            return bytesRead + readToEnd();
+        } catch (IOException e) {
+            throw new WordCounterException(format("Failed to follow file [%s]", path), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.finish();
+        closeChannel();
+    }
+
+    private boolean open() throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        fileKey = currentFileKey();
+        position = skipExistingContent ? channel.size() : 0;
+        return true;
+    }
+
+    private long readToEnd() throws IOException {
+        long total = 0;
+        int read;
+        ((Buffer) buffer).clear();
+        while ( (read = channel.read(buffer, position)) > 0 ) {
+            position += read;
+            total += read;
+            ((Buffer) buffer).flip();
+            tokenizer.feed(buffer);
+            ((Buffer) buffer).clear();
+        }
+        return total;
+    }
+
+    private boolean isReplaced() throws IOException {
+        if ( !Files.exists(path) ) {
+            return false;
+        }
+        final Object currentKey = currentFileKey();
+        return currentKey != null && !Objects.equals(currentKey, fileKey);
+    }
+
+    private Object currentFileKey() throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if ( channel != null ) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.synalogik.wordcountcore.model;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import static java.lang.String.format;
+
+/**
+ * Word length metrics over a sliding window of time, e.g. the last 1, 5 or 15 minutes of a live text stream.
+ * Occurrences are recorded in a fixed ring of per-interval {@link WordCountMetrics}; when time moves on, the oldest interval is replaced (lock-free, via compare-and-set) by an empty one.
+ * Queries merge the intervals that fall within the requested window, so memory use is bounded by the size of the ring no matter how long the stream runs.
+ * The window is measured in whole intervals, so the interval length is the resolution of every query.
+ * The object is thread safe.
+ */
+public class WindowedWordCountMetrics {
+
+    private final long intervalMillis;
+    private final AtomicReferenceArray<Interval> intervals;
+    private final LongSupplier clock;
+
+    /**
+     * @param intervalLength resolution of the window
+     * @param numberOfIntervals number of intervals retained; the longest window that can be queried is intervalLength * numberOfIntervals
+     */
+    public WindowedWordCountMetrics(Duration intervalLength, int numberOfIntervals) {
+        this(intervalLength, numberOfIntervals, System::currentTimeMillis);
+    }
+
+    WindowedWordCountMetrics(Duration intervalLength, int numberOfIntervals, LongSupplier clock) {
+        if ( intervalLength.toMillis() <= 0 || numberOfIntervals <= 0 ) {
+            throw new WordCounterException("Invalid window; interval length and number of intervals must be positive");
+        }
+        this.intervalMillis = intervalLength.toMillis();
+        this.intervals = new AtomicReferenceArray<>(numberOfIntervals);
+        this.clock = clock;
+    }
+
+    /**
+     * Record the occurrence of a word of the given length, in the current interval
+     * @param wordLength
+     */
+    public void registerWordOccurrenceOfLength(int wordLength) {
+        currentInterval().metrics.registerWordOccurrenceOfLength(wordLength);
+    }
+
+    /**
+     * Get the metrics for words recorded within the given window, ending now
+     * @param window how far back to look; rounded up to a whole number of intervals
+     * @return WordCountMetrics merged from each interval in the window
+     */
+    public WordCountMetrics getMetricsForLast(Duration window) {
+        final long intervalsInWindow = (window.toMillis() + intervalMillis - 1) / intervalMillis;
+        if ( intervalsInWindow <= 0 || intervalsInWindow > intervals.length() ) {
+            throw new WordCounterException(format("Invalid window [%s]; must be positive and no longer than %s", window, getLongestWindow()));
+        }
+
+        final long currentEpoch = currentEpoch();
+        final WordCountMetrics merged = new WordCountMetrics();
+
+        for (int i = 0; i < intervals.length(); i++) {
+            final Interval interval = intervals.get(i);
+            if ( interval != null && interval.epoch <= currentEpoch && interval.epoch > currentEpoch - intervalsInWindow ) {
+                merged.merge(interval.metrics);
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * Get the longest window that may be queried
+     * @return Duration
+     */
+    public Duration getLongestWindow() {
+        return Duration.ofMillis(intervalMillis * intervals.length());
+    }
+
+    private long currentEpoch() {
+        return clock.getAsLong() / intervalMillis;
+    }
+
+    private Interval currentInterval() {
+        final long epoch = currentEpoch();
+        final int index = (int) (epoch % intervals.length());
+
+        Interval interval = intervals.get(index);
+        while ( interval == null || interval.epoch < epoch ) {
+            final Interval rotated = new Interval(epoch);
+            if ( intervals.compareAndSet(index, interval, rotated) ) {
+                return rotated;
+            }
+            // another thread rotated the slot first; use theirs
+            interval = intervals.get(index);
+        }
+        return interval;
+    }
+
+    private static final class Interval {
+        private final long epoch;
+        private final WordCountMetrics metrics = new WordCountMetrics();
+
+        private Interval(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.synalogik.wordcountcore.model;
 
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.vocabulary.OffHeapWordDictionary;
 import java.util.Map;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.collections4.MapUtils.unmodifiableMap;
 
@@ -13,10 +16,53 @@ import static org.apache.commons.collections4.MapUtils.unmodifiableMap;
  * The object is thread safe so can be used by multiple threads to record occurrences of word lengths, via calls to {@link #registerWordOccurrenceOfLength(int)} ()}
  * A map is the principal field; used to store word length occurrences, and encapsulation is guaranteed by returning a read-only copy via its getter {@link #getMapFrequencyOfWordsGroupedByWordLength()} ()}
  * Several utility methods are provided to extract useful metrics from the map.
+ * Optionally the exact frequency of each word can also be recorded, in an {@link OffHeapWordDictionary} (the vocabulary), via {@link #registerWordOccurrence(String)}.
  */
 public class WordCountMetrics {
 
     private final Map<Integer, Integer> mapFrequencyOfWordsGroupedByWordLength = new ConcurrentHashMap<>();
+    private final OffHeapWordDictionary vocabulary;
+
+    /**
+     * Create metrics recording word lengths only
+     */
+    public WordCountMetrics() {
+        this(null);
+    }
+
+    /**
+     * Create metrics recording the frequency of each word in the given vocabulary, as well as word lengths
+     * @param vocabulary dictionary in which to count words; may be shared with other metrics, e.g. to count across several sources
+     */
+    public WordCountMetrics(OffHeapWordDictionary vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Record the occurrence of the given word; its length, and if recording a vocabulary, the word itself
+     * @param word
+     */
+    public void registerWordOccurrence(String word) {
+        registerWordOccurrenceOfLength(word.length());
+        if ( vocabulary != null ) {
+            final byte[] utf8 = word.getBytes(UTF_8);
+            vocabulary.add(utf8, 0, utf8.length);
+        }
+    }
+
+    /**
+     * Record the occurrence of the given UTF-8 encoded word; its length, and if recording a vocabulary, the word itself
+     * @param utf8 buffer holding the word
+     * @param offset start of the word within the buffer
+     * @param length number of bytes in the word
+     * @param wordLength length of the word, in UTF-16 code units
+     */
+    public void registerWordOccurrence(byte[] utf8, int offset, int length, int wordLength) {
+        registerWordOccurrenceOfLength(wordLength);
+        if ( vocabulary != null ) {
+            vocabulary.add(utf8, offset, length);
+        }
+    }
 
     /**
      * Record the occurrence of a word of the given length
@@ -26,6 +72,45 @@ public class WordCountMetrics {
         mapFrequencyOfWordsGroupedByWordLength.merge(wordLength, 1, (prev, one) -> prev+=1 );
     }
 
+    /**
+     * Record several occurrences of words of the given length
+     * @param wordLength
+     * @param occurrences number of words of that length to record
+     */
+    public void registerWordOccurrencesOfLength(int wordLength, int occurrences) {
+        if ( occurrences > 0 ) {
+            mapFrequencyOfWordsGroupedByWordLength.merge(wordLength, occurrences, Integer::sum);
+        }
+    }
+
+    /**
+     * Add all word length occurrences recorded by the given metrics to this object. Vocabularies are not merged.
+     * @param other WordCountMetrics to merge in to this object
+     */
+    public void merge(WordCountMetrics other) {
+        other.mapFrequencyOfWordsGroupedByWordLength.forEach(this::registerWordOccurrencesOfLength);
+    }
+
+    /**
+     * Is the frequency of each word being recorded?
+     * @return boolean true if a vocabulary is recorded
+     */
+    public boolean hasVocabulary() {
+        return vocabulary != null;
+    }
+
+    /**
+     * Get the exact number of occurrences of the given word. Requires a vocabulary to have been recorded.
+     * @param word
+     * @return long frequency of the word
+     */
+    public long getFrequencyOfWord(String word) {
+        if ( vocabulary == null ) {
+            throw new WordCounterException("Word frequencies are unavailable; metrics were created without a vocabulary");
+        }
+        return vocabulary.frequencyOf(word);
+    }
+
     /**
      * Have any metrics been gathered?
      * @return boolean true if data has been gathered
@@ -0,0 +1,79 @@
+package com.synalogik.wordcountcore.rendering;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Common behaviour of the renderers that write to an OutputStream.
+ * Each rendering is built in a buffer that is reused between calls, then written to the stream in one go and flushed.
+ * Subclasses only need to describe the output format, via {@link #appendMetrics(String, MetricsSummary, RenderBuffer)}.
+ */
+abstract class AbstractOutputStreamMetricsRenderer implements MetricsRenderer {
+
+    static final int AVERAGE_FRACTION_DIGITS = 3;
+
+    private final OutputStream outputStream;
+    private final RenderBuffer buffer = new RenderBuffer();
+    private final MetricsSummary summary = new MetricsSummary();
+
+    AbstractOutputStreamMetricsRenderer(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public void renderMetrics(final WordCountMetrics wordCountMetrics) {
+        renderMetrics(null, wordCountMetrics);
+    }
+
+    @Override
+    public synchronized void renderMetrics(final String sourceName, final WordCountMetrics wordCountMetrics) {
+        buffer.reset();
+        appendMetrics(sourceName, summary.summarise(wordCountMetrics), buffer);
+
+        try {
+            buffer.writeTo(outputStream);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new WordCounterException("Exception occurred when writing summary", e);
+        }
+    }
+
+    /**
+     * Append the rendering of one set of metrics to the buffer
+     * @param sourceName name of the text source the metrics were gathered from; may be null
+     * @param summary the metrics to render; may have no data
+     * @param buffer destination
+     */
+    abstract void appendMetrics(String sourceName, MetricsSummary summary, RenderBuffer buffer);
+
+    /**
+     * Append the average word length of the summary, to {@link #AVERAGE_FRACTION_DIGITS} decimal places
+     */
+    static void appendAverageWordLength(final MetricsSummary summary, final RenderBuffer buffer) {
+        if ( summary.hasData() ) {
+            buffer.appendRatio(summary.getCharacterCount(), summary.getWordCount(), AVERAGE_FRACTION_DIGITS);
+        } else {
+            buffer.append('0');
+        }
+    }
+
+    /**
+     * Append the word lengths having the highest frequency, in ascending order, separated by the given text
+     */
+    static void appendMostFrequentWordLengths(final MetricsSummary summary, final String separator, final RenderBuffer buffer) {
+        boolean first = true;
+        for (int i = 0; i < summary.getNumberOfWordLengths(); i++) {
+            if ( summary.getFrequency(i) == summary.getHighestFrequency() ) {
+                if ( !first ) {
+                    buffer.append(separator);
+                }
+                buffer.append(summary.getWordLength(i));
+                first = false;
+            }
+        }
+    }
+
+}
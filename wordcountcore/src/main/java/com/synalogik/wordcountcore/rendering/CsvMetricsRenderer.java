@@ -0,0 +1,67 @@
+package com.synalogik.wordcountcore.rendering;
+
+import java.io.OutputStream;
+
+/**
+ * A renderer that writes the word length frequencies of each set of metrics to an OutputStream as CSV (RFC 4180), one row per word length:
+ * <pre>
+ * source,wordLength,frequency
+ * file:///a.txt,2,1
+ * file:///a.txt,3,2
+ * </pre>
+ * The header row is written before the first rendering only, so the output of several sources forms a single table.
+ * A named source with no words is written as one row with an empty word length and a frequency of 0 (e.g. <code>file:///empty.txt,,0</code>), so that it is not lost from a batch.
+ */
+public class CsvMetricsRenderer extends AbstractOutputStreamMetricsRenderer {
+
+    private boolean headerWritten;
+
+    public CsvMetricsRenderer(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    void appendMetrics(final String sourceName, final MetricsSummary summary, final RenderBuffer buffer) {
+        if ( !headerWritten ) {
+            buffer.append("source,wordLength,frequency\r\n");
+            headerWritten = true;
+        }
+
+        if ( !summary.hasData() && sourceName != null ) {
+            appendField(sourceName, buffer);
+            buffer.append(",,0\r\n");
+        }
+
+        for (int i = 0; i < summary.getNumberOfWordLengths(); i++) {
+            appendField(sourceName, buffer);
+            buffer.append(',').append(summary.getWordLength(i))
+                    .append(',').append(summary.getFrequency(i))
+                    .append("\r\n");
+        }
+    }
+
+    private void appendField(final String value, final RenderBuffer buffer) {
+        if ( value == null ) {
+            return;
+        }
+        if ( value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0 ) {
+            buffer.append(value);
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if ( c == '"' ) {
+                buffer.append('"');
+            }
+            if ( Character.isHighSurrogate(c) && i + 1 < value.length() ) {
+                buffer.append(value.substring(i, i + 2));
+                i++;
+            } else {
+                buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+
+}
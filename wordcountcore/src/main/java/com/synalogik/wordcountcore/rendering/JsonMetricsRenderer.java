@@ -0,0 +1,64 @@
+package com.synalogik.wordcountcore.rendering;
+
+import java.io.OutputStream;
+
+/**
+ * A renderer that writes each set of metrics to an OutputStream as a single line JSON object (i.e. JSON Lines), e.g.
+ * <pre>
+ * {"source":"file:///a.txt","wordCount":3,"characterCount":9,"averageWordLength":3,"highestFrequency":2,"mostFrequentWordLengths":[3],"wordLengthFrequencies":{"2":1,"3":2}}
+ * </pre>
+ * The source member is omitted when no source name is given.
+ */
+public class JsonMetricsRenderer extends AbstractOutputStreamMetricsRenderer {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    public JsonMetricsRenderer(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    void appendMetrics(final String sourceName, final MetricsSummary summary, final RenderBuffer buffer) {
+        buffer.append('{');
+        if ( sourceName != null ) {
+            buffer.append("\"source\":");
+            appendString(sourceName, buffer);
+            buffer.append(',');
+        }
+
+        buffer.append("\"wordCount\":").append(summary.getWordCount());
+        buffer.append(",\"characterCount\":").append(summary.getCharacterCount());
+        buffer.append(",\"averageWordLength\":");
+        appendAverageWordLength(summary, buffer);
+        buffer.append(",\"highestFrequency\":").append(summary.getHighestFrequency());
+        buffer.append(",\"mostFrequentWordLengths\":[");
+        appendMostFrequentWordLengths(summary, ",", buffer);
+        buffer.append("],\"wordLengthFrequencies\":{");
+        for (int i = 0; i < summary.getNumberOfWordLengths(); i++) {
+            if ( i > 0 ) {
+                buffer.append(',');
+            }
+            buffer.append('"').append(summary.getWordLength(i)).append("\":").append(summary.getFrequency(i));
+        }
+        buffer.append("}}\n");
+    }
+
+    private void appendString(final String value, final RenderBuffer buffer) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if ( c == '"' || c == '\\' ) {
+                buffer.append('\\').append(c);
+            } else if ( c < 0x20 ) {
+                buffer.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            } else if ( Character.isHighSurrogate(c) && i + 1 < value.length() ) {
+                buffer.append(value.substring(i, i + 2));
+                i++;
+            } else {
+                buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+
+}
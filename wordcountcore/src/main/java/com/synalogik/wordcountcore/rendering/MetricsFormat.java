@@ -0,0 +1,29 @@
+package com.synalogik.wordcountcore.rendering;
+
+import java.io.OutputStream;
+import java.util.function.Function;
+
+/**
+ * The output formats in which metrics can be rendered.
+ */
+public enum MetricsFormat {
+
+    TEXT(OutputStreamMetricsRenderer::new),
+    JSON(JsonMetricsRenderer::new),
+    CSV(CsvMetricsRenderer::new),
+    TSV(TsvMetricsRenderer::new);
+
+    private final Function<OutputStream, MetricsRenderer> rendererFactory;
+
+    MetricsFormat(Function<OutputStream, MetricsRenderer> rendererFactory) {
+        this.rendererFactory = rendererFactory;
+    }
+
+    /**
+     * Create a renderer writing this format to the given OutputStream
+     */
+    public MetricsRenderer newRenderer(OutputStream outputStream) {
+        return rendererFactory.apply(outputStream);
+    }
+
+}
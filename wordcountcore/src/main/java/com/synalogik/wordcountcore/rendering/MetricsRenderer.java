@@ -8,4 +8,12 @@ import com.synalogik.wordcountcore.model.WordCountMetrics;
  */
 public interface MetricsRenderer {
     void renderMetrics(WordCountMetrics wordCountMetrics);
-}
\ No newline at end of file
+
+    /**
+     * Render metrics gathered from a named text source, e.g. one of several files in a batch run.
+     * By default the name is ignored.
+     */
+    default void renderMetrics(String sourceName, WordCountMetrics wordCountMetrics) {
+        renderMetrics(wordCountMetrics);
+    }
+}
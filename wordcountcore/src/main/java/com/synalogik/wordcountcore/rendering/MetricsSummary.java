@@ -0,0 +1,83 @@
+package com.synalogik.wordcountcore.rendering;
+
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The figures a renderer needs, gathered from a {@link WordCountMetrics} in a single pass over its map.
+ * Word lengths are held in ascending order, each packed with its frequency in to a long, so that they can be sorted without boxing.
+ * Reused between calls to {@link #summarise(WordCountMetrics)}; not thread safe.
+ */
+final class MetricsSummary {
+
+    private long[] lengthsAndFrequencies = new long[32];
+    private int numberOfWordLengths;
+    private long wordCount;
+    private long characterCount;
+    private int highestFrequency;
+
+    /**
+     * Replace the contents of this summary with figures from the given metrics, which may be null
+     */
+    MetricsSummary summarise(final WordCountMetrics wordCountMetrics) {
+        numberOfWordLengths = 0;
+        wordCount = 0;
+        characterCount = 0;
+        highestFrequency = 0;
+
+        if ( wordCountMetrics != null ) {
+            for (Map.Entry<Integer, Integer> entry : wordCountMetrics.getMapFrequencyOfWordsGroupedByWordLength().entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+            Arrays.sort(lengthsAndFrequencies, 0, numberOfWordLengths);
+        }
+        return this;
+    }
+
+    boolean hasData() {
+        return numberOfWordLengths > 0;
+    }
+
+    long getWordCount() {
+        return wordCount;
+    }
+
+    long getCharacterCount() {
+        return characterCount;
+    }
+
+    int getHighestFrequency() {
+        return highestFrequency;
+    }
+
+    int getNumberOfWordLengths() {
+        return numberOfWordLengths;
+    }
+
+    /**
+     * @param index position in ascending order of word length
+     */
+    int getWordLength(final int index) {
+        return (int) (lengthsAndFrequencies[index] >>> 32);
+    }
+
+    /**
+     * @param index position in ascending order of word length
+     */
+    int getFrequency(final int index) {
+        return (int) lengthsAndFrequencies[index];
+    }
+
+    private void add(final int wordLength, final int frequency) {
+        if ( numberOfWordLengths == lengthsAndFrequencies.length ) {
+            lengthsAndFrequencies = Arrays.copyOf(lengthsAndFrequencies, numberOfWordLengths * 2);
+        }
+        lengthsAndFrequencies[numberOfWordLengths++] = (long) wordLength << 32 | (frequency & 0xFFFFFFFFL);
+        wordCount += frequency;
+        characterCount += (long) wordLength * frequency;
+        highestFrequency = Math.max(highestFrequency, frequency);
+    }
+
+}
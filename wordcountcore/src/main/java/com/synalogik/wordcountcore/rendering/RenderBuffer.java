@@ -0,0 +1,140 @@
+package com.synalogik.wordcountcore.rendering;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A reusable, growable byte buffer into which rendered output is written as UTF-8, before being handed to an OutputStream in a single write.
+ * Numbers are formatted by hand, avoiding the intermediate Strings and formatter objects of String.format and DecimalFormat.
+ * Not thread safe.
+ */
+final class RenderBuffer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final byte[] digits = new byte[20];
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    void reset() {
+        size = 0;
+    }
+
+    RenderBuffer append(final char c) {
+        if ( c < 0x80 ) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) c;
+        } else {
+            append(String.valueOf(c));
+        }
+        return this;
+    }
+
+    /**
+     * Append the given text, UTF-8 encoded
+     */
+    RenderBuffer append(final String text) {
+        final int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if ( c < 0x80 ) {
+                bytes[size++] = (byte) c;
+            } else {
+                final int codePoint = Character.codePointAt(text, i);
+                i += Character.charCount(codePoint) - 1;
+                appendMultiByte(codePoint, length - i);
+            }
+        }
+        return this;
+    }
+
+    RenderBuffer append(final long value) {
+        if ( value == Long.MIN_VALUE ) {
+            return append(Long.toString(value));
+        }
+        long remaining = Math.abs(value);
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while ( remaining != 0 );
+
+        ensureCapacity(digits.length - start + 1);
+        if ( value < 0 ) {
+            bytes[size++] = '-';
+        }
+        System.arraycopy(digits, start, bytes, size, digits.length - start);
+        size += digits.length - start;
+        return this;
+    }
+
+    /**
+     * Append numerator / denominator as a decimal, with at most the given number of fraction digits and no trailing zeros (as the pattern "#.###" would).
+     * The exact ratio is rounded half-even, so no floating point value is involved.
+     */
+    RenderBuffer appendRatio(final long numerator, final long denominator, final int maxFractionDigits) {
+        long scale = 1;
+        for (int i = 0; i < maxFractionDigits; i++) {
+            scale *= 10;
+        }
+
+        long integerPart = numerator / denominator;
+        final long remainder = numerator % denominator;
+        long fraction = remainder * scale / denominator;
+        final long fractionRemainder = remainder * scale % denominator;
+
+        final long twiceFractionRemainder = fractionRemainder * 2;
+        if ( twiceFractionRemainder > denominator || (twiceFractionRemainder == denominator && (fraction & 1) == 1) ) {
+            fraction++;
+            if ( fraction == scale ) {
+                integerPart++;
+                fraction = 0;
+            }
+        }
+
+        append(integerPart);
+        if ( fraction != 0 ) {
+            int fractionDigits = maxFractionDigits;
+            while ( fraction % 10 == 0 ) {
+                fraction /= 10;
+                fractionDigits--;
+            }
+            ensureCapacity(fractionDigits + 1);
+            bytes[size++] = '.';
+            for (int i = fractionDigits - 1; i >= 0; i--) {
+                bytes[size + i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            size += fractionDigits;
+        }
+        return this;
+    }
+
+    void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(bytes, 0, size);
+    }
+
+    private void appendMultiByte(final int codePoint, final int charsRemaining) {
+        ensureCapacity(4 + charsRemaining);
+        if ( codePoint < 0x800 ) {
+            bytes[size++] = (byte) (0xC0 | codePoint >> 6);
+        } else if ( codePoint < 0x10000 ) {
+            bytes[size++] = (byte) (0xE0 | codePoint >> 12);
+            bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        } else {
+            bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        }
+        bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+    }
+
+    private void ensureCapacity(final int additional) {
+        if ( size + additional > bytes.length ) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+
+}
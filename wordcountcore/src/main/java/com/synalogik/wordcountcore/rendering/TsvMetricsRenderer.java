@@ -0,0 +1,42 @@
+package com.synalogik.wordcountcore.rendering;
+
+import java.io.OutputStream;
+
+/**
+ * A renderer that writes each set of metrics to an OutputStream as a single tab separated line, without a header, e.g. for batch runs over many files.
+ * The columns are: source, word count, character count, average word length, highest frequency of a word length, and the (comma separated) word lengths having that frequency.
+ * Tabs and line breaks in the source name are replaced by spaces.
+ */
+public class TsvMetricsRenderer extends AbstractOutputStreamMetricsRenderer {
+
+    public TsvMetricsRenderer(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    void appendMetrics(final String sourceName, final MetricsSummary summary, final RenderBuffer buffer) {
+        if ( sourceName != null ) {
+            for (int i = 0; i < sourceName.length(); i++) {
+                final char c = sourceName.charAt(i);
+                if ( c == '\t' || c == '\n' || c == '\r' ) {
+                    buffer.append(' ');
+                } else if ( Character.isHighSurrogate(c) && i + 1 < sourceName.length() ) {
+                    buffer.append(sourceName.substring(i, i + 2));
+                    i++;
+                } else {
+                    buffer.append(c);
+                }
+            }
+        }
+
+        buffer.append('\t').append(summary.getWordCount());
+        buffer.append('\t').append(summary.getCharacterCount());
+        buffer.append('\t');
+        appendAverageWordLength(summary, buffer);
+        buffer.append('\t').append(summary.getHighestFrequency());
+        buffer.append('\t');
+        appendMostFrequentWordLengths(summary, ",", buffer);
+        buffer.append('\n');
+    }
+
+}
@@ -0,0 +1,649 @@
+package com.synalogik.wordcountcore.vocabulary;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Counts the exact number of occurrences of each distinct word, keeping the words and their counts outside of the Java heap.
+ * <p>
+ * Words are held as UTF-8 bytes in an arena (a direct ByteBuffer), indexed by an open addressing hash table which is itself a direct ByteBuffer,
+ * so no String or boxed count is created per word. The table and arena grow by doubling; the memory budget bounds all the direct memory they are ever given,
+ * including outgrown buffers that may not yet have been collected, so at their largest they hold about half of it. When they would exceed the budget, their contents are sorted and
+ * spilled to a run file on disk, and counting starts afresh; runs are combined by a k-way merge when the vocabulary is written out.
+ * So that a merge never needs more than a bounded number of files open at once, whenever {@link #MAXIMUM_RUNS} runs have been spilled the smallest are merged in to one.
+ * Each run keeps a sparse index in memory, of every {@link #INDEX_INTERVAL}th word and where it starts, so a query made after spilling reads only a short stretch of each run.
+ * <p>
+ * Words are ordered by their UTF-8 bytes, i.e. by Unicode code point. The object is thread safe; {@link #close()} deletes any spilled runs.
+ */
+public class OffHeapWordDictionary implements Closeable {
+
+    /** Smallest memory budget that may be given */
+    public static final long MINIMUM_MEMORY_BUDGET = 128 * 1024;
+
+    /** Most runs kept on disk at once, and so most files open while writing the vocabulary */
+    public static final int MAXIMUM_RUNS = 64;
+
+    /** Number of records between the words indexed in memory for each run */
+    public static final int INDEX_INTERVAL = 128;
+
+    // number of the smallest runs merged in to one when MAXIMUM_RUNS is reached
+    private static final int COMPACTION_FAN_IN = 16;
+
+    // each slot is a long count, an int hash, and an int arena offset plus one (zero marking an empty slot)
+    private static final int SLOT_BYTES = 16;
+    private static final int COUNT_OFFSET = 0;
+    private static final int HASH_OFFSET = 8;
+    private static final int ENTRY_OFFSET = 12;
+    private static final int INITIAL_SLOTS = 1 << 12;
+    private static final int INITIAL_ARENA_BYTES = 1 << 16;
+    private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+
+    private final long memoryBudget;
+    private final Path spillDirectory;
+    private final List<Run> runs = new ArrayList<>();
+
+    private ByteBuffer slots;
+    private int slotMask;
+    private int entries;
+    private ByteBuffer arena;
+    private long allocatedBytes;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * @param memoryBudget maximum number of bytes of direct memory to allocate, before spilling to disk
+     * @param spillDirectory directory in which to create spilled runs
+     */
+    public OffHeapWordDictionary(final long memoryBudget, final Path spillDirectory) {
+        if ( memoryBudget < MINIMUM_MEMORY_BUDGET ) {
+            throw new WordCounterException(format("Invalid memoryBudget [%d]; must be at least %d bytes", memoryBudget, MINIMUM_MEMORY_BUDGET));
+        }
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+        this.slots = ByteBuffer.allocateDirect(INITIAL_SLOTS * SLOT_BYTES);
+        this.slotMask = INITIAL_SLOTS - 1;
+        this.arena = ByteBuffer.allocateDirect(INITIAL_ARENA_BYTES);
+        this.allocatedBytes = INITIAL_SLOTS * SLOT_BYTES + INITIAL_ARENA_BYTES;
+    }
+
+    /**
+     * Record an occurrence of the given word
+     * @param utf8 buffer holding the UTF-8 encoded word
+     * @param offset start of the word within the buffer
+     * @param length number of bytes in the word
+     */
+    public synchronized void add(final byte[] utf8, final int offset, final int length) {
+        final int hash = hash(utf8, offset, length);
+        int slot = findSlot(utf8, offset, length, hash);
+
+        if ( slot >= 0 ) {
+            final int position = slot * SLOT_BYTES + COUNT_OFFSET;
+            slots.putLong(position, slots.getLong(position) + 1);
+            return;
+        }
+
+        if ( !ensureCapacityFor(length) ) {
+            spill();
+            ensureCapacityFor(length);
+        }
+        slot = findSlot(utf8, offset, length, hash);
+
+        final int entryOffset = arena.position();
+        arena.putInt(length);
+        arena.put(utf8, offset, length);
+
+        final int position = (-slot - 1) * SLOT_BYTES;
+        slots.putLong(position + COUNT_OFFSET, 1);
+        slots.putInt(position + HASH_OFFSET, hash);
+        slots.putInt(position + ENTRY_OFFSET, entryOffset + 1);
+        entries++;
+    }
+
+    /**
+     * Get the number of times the given word has been recorded
+     * @param word
+     * @return long frequency; zero if never recorded
+     */
+    public long frequencyOf(final String word) {
+        final byte[] utf8 = word.getBytes(UTF_8);
+        return frequencyOf(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Get the number of times the given UTF-8 encoded word has been recorded
+     * @return long frequency; zero if never recorded
+     */
+    public synchronized long frequencyOf(final byte[] utf8, final int offset, final int length) {
+        final int slot = findSlot(utf8, offset, length, hash(utf8, offset, length));
+        long frequency = slot >= 0 ? slots.getLong(slot * SLOT_BYTES + COUNT_OFFSET) : 0;
+
+        for (Run run : runs) {
+            frequency += frequencyIn(run, utf8, offset, length);
+        }
+        return frequency;
+    }
+
+    /**
+     * Get the number of bytes of direct memory allocated so far, including buffers since outgrown
+     * @return long never more than the memory budget, unless a single word is larger
+     */
+    synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Get the number of runs currently spilled to disk; never more than {@link #MAXIMUM_RUNS}
+     * @return int
+     */
+    public synchronized int getNumberOfSpilledRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Write every word recorded, with its frequency, in word order: one word per line, separated from its frequency by a tab
+     * @param outputStream destination; not closed
+     */
+    public synchronized void writeTo(final OutputStream outputStream) {
+        try {
+            if ( entries > 0 && !runs.isEmpty() ) {
+                spill();
+            }
+
+            final BufferedOutputStream out = new BufferedOutputStream(outputStream);
+            if ( runs.isEmpty() ) {
+                writeInMemoryEntries(out);
+            } else {
+                mergeRuns(runs, (word, length, count) -> writeLine(out, word, length, count));
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new WordCounterException("Failed to write vocabulary", e);
+        }
+    }
+
+    /**
+     * Delete any runs spilled to disk
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (Run run : runs) {
+            Files.deleteIfExists(run.path);
+        }
+        runs.clear();
+    }
+
+    /**
+     * @return index of the slot holding the word if present, otherwise (-(index of the empty slot where it belongs) - 1)
+     */
+    private int findSlot(final byte[] utf8, final int offset, final int length, final int hash) {
+        int slot = hash & slotMask;
+        while ( true ) {
+            final int position = slot * SLOT_BYTES;
+            final int entryOffsetPlusOne = slots.getInt(position + ENTRY_OFFSET);
+            if ( entryOffsetPlusOne == 0 ) {
+                return -slot - 1;
+            }
+            if ( slots.getInt(position + HASH_OFFSET) == hash && entryEquals(entryOffsetPlusOne - 1, utf8, offset, length) ) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private boolean entryEquals(final int entryOffset, final byte[] utf8, final int offset, final int length) {
+        if ( arena.getInt(entryOffset) != length ) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if ( arena.get(entryOffset + 4 + i) != utf8[offset + i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grow the table and arena, if necessary, to hold one more word of the given length
+     * @return false if that would exceed the memory budget (unless empty, in which case the budget is exceeded rather than fail)
+     */
+    private boolean ensureCapacityFor(final int length) {
+        final long required = (long) arena.position() + 4 + length;
+        long arenaCapacity = arena.capacity();
+        while ( arenaCapacity < required ) {
+            arenaCapacity = Math.min(arenaCapacity * 2, MAX_ARENA_BYTES);
+            if ( arenaCapacity == MAX_ARENA_BYTES && required > MAX_ARENA_BYTES ) {
+                if ( entries == 0 ) {
+                    throw new WordCounterException(format("Word of %d bytes is too long to record", length));
+                }
+                return false;
+            }
+        }
+
+        final int slotCount = slotMask + 1;
+        final long slotBytes = (entries + 1) * 4L > slotCount * 3L ? slotCount * 2L * SLOT_BYTES : (long) slotCount * SLOT_BYTES;
+
+        // outgrown buffers are only freed when collected, so count every buffer allocated, not just those in use
+        long additionalBytes = 0;
+        if ( arenaCapacity > arena.capacity() ) {
+            additionalBytes += arenaCapacity;
+        }
+        if ( slotBytes > slots.capacity() ) {
+            additionalBytes += slotBytes;
+        }
+        if ( allocatedBytes + additionalBytes > memoryBudget && entries > 0 ) {
+            return false;
+        }
+        allocatedBytes += additionalBytes;
+
+        if ( arenaCapacity > arena.capacity() ) {
+            growArena((int) arenaCapacity);
+        }
+        if ( slotBytes > slots.capacity() ) {
+            rehash((int) (slotBytes / SLOT_BYTES));
+        }
+        return true;
+    }
+
+    private void growArena(final int capacity) {
+        final ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        ((Buffer) arena).flip();
+        grown.put(arena);
+        arena = grown;
+    }
+
+    private void rehash(final int slotCount) {
+        final ByteBuffer old = slots;
+        slots = ByteBuffer.allocateDirect(slotCount * SLOT_BYTES);
+        slotMask = slotCount - 1;
+
+        for (int position = 0; position < old.capacity(); position += SLOT_BYTES) {
+            if ( old.getInt(position + ENTRY_OFFSET) != 0 ) {
+                int slot = old.getInt(position + HASH_OFFSET) & slotMask;
+                while ( slots.getInt(slot * SLOT_BYTES + ENTRY_OFFSET) != 0 ) {
+                    slot = (slot + 1) & slotMask;
+                }
+                final int target = slot * SLOT_BYTES;
+                slots.putLong(target + COUNT_OFFSET, old.getLong(position + COUNT_OFFSET));
+                slots.putInt(target + HASH_OFFSET, old.getInt(position + HASH_OFFSET));
+                slots.putInt(target + ENTRY_OFFSET, old.getInt(position + ENTRY_OFFSET));
+            }
+        }
+    }
+
+    /**
+     * Write the in memory entries to a new run file, in word order, then empty the table and arena (keeping their capacity)
+     */
+    private void spill() {
+        try {
+            try (RunWriter writer = new RunWriter()) {
+                for (int slot : sortedSlots()) {
+                    final int position = slot * SLOT_BYTES;
+                    final int length = readEntry(slots.getInt(position + ENTRY_OFFSET) - 1);
+                    writer.write(scratch, length, slots.getLong(position + COUNT_OFFSET));
+                }
+                runs.add(writer.finish());
+            }
+            if ( runs.size() >= MAXIMUM_RUNS ) {
+                compactRuns();
+            }
+        } catch (IOException e) {
+            throw new WordCounterException("Failed to spill vocabulary to disk", e);
+        }
+
+        for (int position = 0; position < slots.capacity(); position += 8) {
+            slots.putLong(position, 0);
+        }
+        ((Buffer) arena).clear();
+        entries = 0;
+    }
+
+    private void writeInMemoryEntries(final OutputStream out) throws IOException {
+        for (int slot : sortedSlots()) {
+            final int position = slot * SLOT_BYTES;
+            final int length = readEntry(slots.getInt(position + ENTRY_OFFSET) - 1);
+            writeLine(out, scratch, length, slots.getLong(position + COUNT_OFFSET));
+        }
+    }
+
+    /**
+     * Look the word up in a run, reading from the indexed word at or before it, to no further than the next indexed word
+     */
+    private static long frequencyIn(final Run run, final byte[] utf8, final int offset, final int length) {
+        final int indexed = run.indexedWordAtOrBefore(utf8, offset, length);
+        if ( indexed < 0 ) {
+            return 0;
+        }
+
+        try (RunReader reader = new RunReader(run.path, run.indexOffsets[indexed])) {
+            for (int record = 0; record < INDEX_INTERVAL && reader.next(); record++) {
+                final int comparison = reader.compareTo(utf8, offset, length);
+                if ( comparison >= 0 ) {
+                    return comparison == 0 ? reader.count : 0;
+                }
+            }
+            return 0;
+        } catch (IOException e) {
+            throw new WordCounterException(format("Failed to read spilled vocabulary [%s]", run.path), e);
+        }
+    }
+
+    /**
+     * Merge the smallest runs in to one, so that merging all runs never opens more than {@link #MAXIMUM_RUNS} files.
+     * Always merging the smallest keeps the number of times each record is rewritten logarithmic in the number of spills.
+     */
+    private void compactRuns() throws IOException {
+        runs.sort(Comparator.comparingLong(run -> run.bytes));
+        final List<Run> smallest = new ArrayList<>(runs.subList(0, COMPACTION_FAN_IN));
+
+        try (RunWriter writer = new RunWriter()) {
+            mergeRuns(smallest, writer::write);
+            runs.add(writer.finish());
+        }
+        runs.removeAll(smallest);
+        for (Run run : smallest) {
+            Files.deleteIfExists(run.path);
+        }
+    }
+
+    /**
+     * Merge the given runs, passing each distinct word, in order, with its total count, to the given consumer
+     */
+    private void mergeRuns(final List<Run> toMerge, final RecordConsumer consumer) throws IOException {
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>(toMerge.size());
+        try {
+            for (Run run : toMerge) {
+                final RunReader reader = new RunReader(run.path);
+                if ( reader.next() ) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            while ( !queue.isEmpty() ) {
+                final RunReader smallest = queue.poll();
+                final int length = smallest.length;
+                scratch = ensureLength(scratch, length);
+                System.arraycopy(smallest.word, 0, scratch, 0, length);
+                long count = smallest.count;
+                advance(smallest, queue);
+
+                while ( !queue.isEmpty() && queue.peek().compareTo(scratch, 0, length) == 0 ) {
+                    final RunReader same = queue.poll();
+                    count += same.count;
+                    advance(same, queue);
+                }
+                consumer.accept(scratch, length, count);
+            }
+        } finally {
+            for (RunReader reader : queue) {
+                reader.close();
+            }
+        }
+    }
+
+    private void advance(final RunReader reader, final PriorityQueue<RunReader> queue) throws IOException {
+        if ( reader.next() ) {
+            queue.add(reader);
+        } else {
+            reader.close();
+        }
+    }
+
+    private void writeLine(final OutputStream out, final byte[] word, final int length, final long count) throws IOException {
+        out.write(word, 0, length);
+        out.write('\t');
+        final String digits = Long.toString(count);
+        for (int i = 0; i < digits.length(); i++) {
+            out.write(digits.charAt(i));
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Copy the word at the given arena offset in to the scratch buffer
+     * @return length of the word
+     */
+    private int readEntry(final int entryOffset) {
+        final int length = arena.getInt(entryOffset);
+        scratch = ensureLength(scratch, length);
+        for (int i = 0; i < length; i++) {
+            scratch[i] = arena.get(entryOffset + 4 + i);
+        }
+        return length;
+    }
+
+    /**
+     * @return indexes of the occupied slots, ordered by their words
+     */
+    private int[] sortedSlots() {
+        final int[] occupied = new int[entries];
+        int count = 0;
+        for (int slot = 0; slot <= slotMask; slot++) {
+            if ( slots.getInt(slot * SLOT_BYTES + ENTRY_OFFSET) != 0 ) {
+                occupied[count++] = slot;
+            }
+        }
+        mergeSort(occupied, new int[occupied.length], 0, occupied.length);
+        return occupied;
+    }
+
+    private void mergeSort(final int[] values, final int[] work, final int from, final int to) {
+        if ( to - from < 2 ) {
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(values, work, from, middle);
+        mergeSort(values, work, middle, to);
+        System.arraycopy(values, from, work, from, to - from);
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if ( right >= to || (left < middle && compareSlots(work[left], work[right]) <= 0) ) {
+                values[i] = work[left++];
+            } else {
+                values[i] = work[right++];
+            }
+        }
+    }
+
+    private int compareSlots(final int slotA, final int slotB) {
+        final int entryA = slots.getInt(slotA * SLOT_BYTES + ENTRY_OFFSET) - 1;
+        final int entryB = slots.getInt(slotB * SLOT_BYTES + ENTRY_OFFSET) - 1;
+        final int lengthA = arena.getInt(entryA);
+        final int lengthB = arena.getInt(entryB);
+        for (int i = 0, common = Math.min(lengthA, lengthB); i < common; i++) {
+            final int difference = (arena.get(entryA + 4 + i) & 0xFF) - (arena.get(entryB + 4 + i) & 0xFF);
+            if ( difference != 0 ) {
+                return difference;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private static int hash(final byte[] utf8, final int offset, final int length) {
+        // FNV-1a, with a final mix as linear probing uses the low bits
+        int hash = 0x811C9DC5;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = (hash ^ utf8[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compare words by their UTF-8 bytes, treated as unsigned
+     */
+    private static int compareWords(final byte[] a, final int aOffset, final int aLength, final byte[] b, final int bOffset, final int bLength) {
+        for (int i = 0, common = Math.min(aLength, bLength); i < common; i++) {
+            final int difference = (a[aOffset + i] & 0xFF) - (b[bOffset + i] & 0xFF);
+            if ( difference != 0 ) {
+                return difference;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static byte[] ensureLength(final byte[] buffer, final int length) {
+        return buffer.length >= length ? buffer : new byte[Math.max(length, buffer.length * 2)];
+    }
+
+    private interface RecordConsumer {
+        void accept(byte[] word, int length, long count) throws IOException;
+    }
+
+    /**
+     * A run spilled to disk, holding (word, count) records in word order, with an index of every INDEX_INTERVAL'th word and its offset in the file.
+     */
+    private static final class Run {
+        private final Path path;
+        private final long bytes;
+        private final byte[][] indexWords;
+        private final long[] indexOffsets;
+
+        private Run(final Path path, final long bytes, final byte[][] indexWords, final long[] indexOffsets) {
+            this.path = path;
+            this.bytes = bytes;
+            this.indexWords = indexWords;
+            this.indexOffsets = indexOffsets;
+        }
+
+        /**
+         * @return position in the index of the last word not after the given word, or -1 if the given word comes before every word in the run
+         */
+        private int indexedWordAtOrBefore(final byte[] utf8, final int offset, final int length) {
+            int low = 0;
+            int high = indexWords.length - 1;
+            while ( low <= high ) {
+                final int middle = (low + high) >>> 1;
+                final byte[] word = indexWords[middle];
+                if ( compareWords(word, 0, word.length, utf8, offset, length) <= 0 ) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+    }
+
+    /**
+     * Writes (word, count) records, which must be given in word order, to a new run file.
+     */
+    private final class RunWriter implements Closeable {
+        private final Path path;
+        private final DataOutputStream out;
+        private final List<byte[]> indexWords = new ArrayList<>();
+        private final List<Long> indexOffsets = new ArrayList<>();
+        private long bytes;
+        private long records;
+        private boolean finished;
+
+        private RunWriter() throws IOException {
+            this.path = Files.createTempFile(spillDirectory, "vocabulary-", ".run");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+
+        private void write(final byte[] word, final int length, final long count) throws IOException {
+            if ( records++ % INDEX_INTERVAL == 0 ) {
+                indexWords.add(Arrays.copyOf(word, length));
+                indexOffsets.add(bytes);
+            }
+            out.writeInt(length);
+            out.write(word, 0, length);
+            out.writeLong(count);
+            bytes += 4 + length + 8;
+        }
+
+        private Run finish() throws IOException {
+            out.close();
+            finished = true;
+            return new Run(path, bytes, indexWords.toArray(new byte[0][]), indexOffsets.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        /**
+         * Delete the file unless finished, e.g. when writing failed
+         */
+        @Override
+        public void close() throws IOException {
+            if ( !finished ) {
+                out.close();
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Reads the (word, count) records of a spilled run, in order.
+     */
+    private static final class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        private byte[] word = new byte[64];
+        private int length;
+        private long count;
+
+        private RunReader(final Path run) throws IOException {
+            this(run, 0);
+        }
+
+        /**
+         * Read the records of a run, starting at the given offset; which must be the start of a record
+         */
+        private RunReader(final Path run, final long offset) throws IOException {
+            final FileChannel channel = FileChannel.open(run, StandardOpenOption.READ);
+            try {
+                channel.position(offset);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        }
+
+        private boolean next() throws IOException {
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            word = ensureLength(word, length);
+            in.readFully(word, 0, length);
+            count = in.readLong();
+            return true;
+        }
+
+        private int compareTo(final byte[] other, final int offset, final int otherLength) {
+            return compareWords(word, 0, length, other, offset, otherLength);
+        }
+
+        @Override
+        public int compareTo(final RunReader other) {
+            return compareTo(other.word, 0, other.length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+}
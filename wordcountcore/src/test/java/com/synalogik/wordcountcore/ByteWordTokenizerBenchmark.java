@@ -0,0 +1,97 @@
+package com.synalogik.wordcountcore;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares the throughput of {@link ByteWordTokenizer}'s SWAR path with its byte at a time path,
+ * i.e. <code>wordcount.tokenizer.swar=true</code> with <code>false</code>, on ASCII prose and on mixed (partly non-ASCII) text.
+ * Not a unit test; run it from the wordcountcore directory after building, e.g.
+ * <pre>
+ * java -cp target/classes:target/test-classes com.synalogik.wordcountcore.ByteWordTokenizerBenchmark [megabytes] [rounds]
+ * </pre>
+ * Each round tokenizes the text once with each path, alternating which goes first; the best time of each path is reported.
+ */
+public class ByteWordTokenizerBenchmark {
+
+    private static final String[] ASCII_WORDS = {"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "and", "runs",
+            "away", "into", "forest", "while", "3,500.75", "people", "watch", "18/05/2016", "morning", "world"};
+    private static final String[] MIXED_WORDS = {"caf\u00e9", "na\u00efve", "\u00fcber", "stra\u00dfe", "\u03b1\u03b2\u03b3",
+            "\ud83d\ude00", "\u65e5\u672c\u8a9e"};
+    private static final String[] DELIMITERS = {" ", " ", " ", " ", ", ", ". ", "\n", "; ", "! "};
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private static long sink;
+
+    public static void main(String... args) {
+        final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        run("ascii prose", text(megabytes, 0), rounds);
+        run("mixed text", text(megabytes, 10), rounds);
+    }
+
+    private static void run(final String name, final ByteBuffer text, final int rounds) {
+        long bestSwar = Long.MAX_VALUE;
+        long bestScalar = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            if ( round % 2 == 0 ) {
+                bestSwar = Math.min(bestSwar, time(text, true));
+                bestScalar = Math.min(bestScalar, time(text, false));
+            } else {
+                bestScalar = Math.min(bestScalar, time(text, false));
+                bestSwar = Math.min(bestSwar, time(text, true));
+            }
+        }
+
+        final double megabytes = text.capacity() / (1024.0 * 1024.0);
+        System.out.printf("%-12s swar %8.1f MB/s   scalar %8.1f MB/s   speedup %.2fx%n",
+                name, megabytes * 1e9 / bestSwar, megabytes * 1e9 / bestScalar, (double) bestScalar / bestSwar);
+    }
+
+    /**
+     * @return nanoseconds taken to tokenize the whole text, a block at a time as StreamingWordCounter does
+     */
+    private static long time(final ByteBuffer text, final boolean swar) {
+        final long[] total = new long[1];
+        final ByteWordTokenizer tokenizer = new ByteWordTokenizer(wordLength -> total[0] += wordLength, swar);
+        final long start = System.nanoTime();
+        for (int position = 0; position < text.capacity(); position += BLOCK_SIZE) {
+            final ByteBuffer block = text.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            ((Buffer) block).limit(Math.min(text.capacity(), position + BLOCK_SIZE));
+            ((Buffer) block).position(position);
+            tokenizer.feed(block);
+        }
+        tokenizer.finish();
+        final long elapsed = System.nanoTime() - start;
+        sink += total[0];
+        return elapsed;
+    }
+
+    /**
+     * @param mixedPercent percentage of words taken from the non-ASCII word list
+     * @return direct buffer of about the given number of megabytes of UTF-8 text
+     */
+    private static ByteBuffer text(final int megabytes, final int mixedPercent) {
+        final Random random = new Random(42);
+        final StringBuilder builder = new StringBuilder();
+        final ByteBuffer text = ByteBuffer.allocateDirect(megabytes * 1024 * 1024);
+        while ( text.hasRemaining() ) {
+            builder.setLength(0);
+            while ( builder.length() < 4096 ) {
+                final String[] words = random.nextInt(100) < mixedPercent ? MIXED_WORDS : ASCII_WORDS;
+                builder.append(words[random.nextInt(words.length)]).append(DELIMITERS[random.nextInt(DELIMITERS.length)]);
+            }
+            final byte[] bytes = builder.toString().getBytes(UTF_8);
+            text.put(bytes, 0, Math.min(bytes.length, text.remaining()));
+        }
+        ((Buffer) text).flip();
+        return text;
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.synalogik.wordcountcore;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+
+/**
+ * Tests that the byte tokenizer applies the same word splitting rules as {@link WordSplitter}.
+ */
+public class ByteWordTokenizerTest {
+
+    @Test
+    public void exampleStringGivenInSpec() {
+        assertThat(wordLengths("Hello world & good morning. The date is 18/05/2016"), contains(5, 5, 1, 4, 7, 3, 4, 2, 10));
+    }
+
+    @Test
+    public void emptyInputHasNoWords() {
+        assertThat(wordLengths(""), empty());
+    }
+
+    @Test
+    public void formattedNumericValueIsNotSplit() {
+        assertThat(wordLengths("350,000.56"), contains(10));
+    }
+
+    @Test
+    public void separatorsAtEndOfNumberAreDelimiters() {
+        assertThat(wordLengths(",350,000.56."), contains(10));
+    }
+
+    @Test
+    public void separatorBetweenDigitAndNonDigitIsADelimiter() {
+        assertThat(wordLengths("35,NonNumeric 35.NonNumeric"), contains(2, 10, 2, 10));
+    }
+
+    @Test
+    public void multiByteCharactersAreCountedInUtf16CodeUnits() {
+        assertThat(wordLengths("caf\u00e9 \uD83D\uDE00!"), contains(4, 2));
+    }
+
+    @Test
+    public void wordsMaySpanBufferBoundaries() {
+        final List<Integer> lengths = new ArrayList<>();
+        final ByteWordTokenizer tokenizer = new ByteWordTokenizer(lengths::add);
+        for (byte b : "Hello 3,500 caf\u00e9".getBytes(UTF_8)) {
+            tokenizer.feed(ByteBuffer.wrap(new byte[] {b}));
+        }
+        tokenizer.finish();
+        assertThat(lengths, contains(5, 5, 4));
+    }
+
+    @Test
+    public void wordBytesAreReportedWhenRequested() {
+        final List<String> words = new ArrayList<>();
+        final ByteWordTokenizer tokenizer = new ByteWordTokenizer((utf8, offset, length, wordLength) -> words.add(new String(utf8, offset, length, UTF_8)));
+        for (byte b : "3,500.75. caf\u00e9, 7,x".getBytes(UTF_8)) {
+            tokenizer.feed(ByteBuffer.wrap(new byte[] {b}));
+        }
+        tokenizer.finish();
+        assertThat(words, contains("3,500.75", "caf\u00e9", "7", "x"));
+    }
+
+    @Test
+    public void agreesWithWordSplitterForRandomText() {
+        final String alphabet = "ab1 2,.!?:;\t\n\u00e9\uD83D\uDE00";
+        final Random random = new Random(42);
+
+        for (int run = 0; run < 500; run++) {
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 60; i++) {
+                final int index = random.nextInt(alphabet.length() - 1);
+                // keep surrogate pairs together
+                text.append(Character.isHighSurrogate(alphabet.charAt(index)) ? alphabet.substring(index, index + 2) : alphabet.substring(index, index + 1));
+            }
+
+            final List<Integer> expected = new ArrayList<>();
+            Arrays.stream(text.toString().split("\n"))
+                    .forEach(line -> WordSplitter.wordsFromString(line).forEach(word -> expected.add(word.length())));
+
+            assertThat(text.toString(), wordLengths(text.toString()), equalTo(expected));
+        }
+    }
+
+    @Test
+    public void swarPathAgreesWithByteAtATimePath() {
+        final String alphabet = "abcdefgh0123456789    ,.,.!?:;\t\r\n\u000B\f\u0001~\u00e9";
+        final Random random = new Random(7);
+
+        for (int run = 0; run < 500; run++) {
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            final byte[] utf8 = text.toString().getBytes(UTF_8);
+
+            final List<String> expected = new ArrayList<>();
+            final ByteWordTokenizer scalar = new ByteWordTokenizer((bytes, offset, length, wordLength) -> expected.add(new String(bytes, offset, length, UTF_8) + wordLength), false);
+            scalar.feed(ByteBuffer.wrap(utf8));
+            scalar.finish();
+
+            final List<String> actual = new ArrayList<>();
+            final ByteWordTokenizer swar = new ByteWordTokenizer((bytes, offset, length, wordLength) -> actual.add(new String(bytes, offset, length, UTF_8) + wordLength), true);
+            // split in to randomly sized buffers, alternating heap and direct, and byte orders
+            for (int offset = 0; offset < utf8.length; ) {
+                final int length = Math.min(utf8.length - offset, random.nextInt(40));
+                final ByteBuffer buffer = run % 2 == 0 ? ByteBuffer.allocate(length) : ByteBuffer.allocateDirect(length);
+                buffer.order(random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                buffer.put(utf8, offset, length).flip();
+                swar.feed(buffer);
+                offset += length;
+            }
+            swar.finish();
+
+            assertThat(text.toString(), actual, equalTo(expected));
+        }
+    }
+
+    private List<Integer> wordLengths(final String text) {
+        final List<Integer> lengths = new ArrayList<>();
+        final ByteWordTokenizer tokenizer = new ByteWordTokenizer(lengths::add);
+        tokenizer.feed(ByteBuffer.wrap(text.getBytes(UTF_8)));
+        tokenizer.finish();
+        return lengths;
+    }
+
+}
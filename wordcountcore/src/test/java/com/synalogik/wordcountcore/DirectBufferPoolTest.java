@@ -0,0 +1,42 @@
+package com.synalogik.wordcountcore;
+
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DirectBufferPoolTest {
+
+    @Test
+    public void acquiredBuffersAreEmptyLittleEndianAndDirect() {
+        final ByteBuffer buffer = new DirectBufferPool(16, 1).acquire();
+        assertThat(buffer.isDirect(), is(true));
+        assertThat(buffer.order(), is(ByteOrder.LITTLE_ENDIAN));
+        assertThat(buffer.remaining(), is(16));
+    }
+
+    @Test
+    public void releasedBufferIsReusedCleared() {
+        // given
+        final DirectBufferPool pool = new DirectBufferPool(16, 1);
+        final ByteBuffer buffer = pool.acquire();
+        ((Buffer) buffer.putLong(42L)).flip();
+
+        // when
+        pool.release(buffer);
+
+        // then
+        final ByteBuffer reused = pool.acquire();
+        assertThat(reused, sameInstance(buffer));
+        assertThat(reused.position(), is(0));
+        assertThat(reused.remaining(), is(16));
+        assertThat(pool.acquire(), not(sameInstance(buffer)));
+    }
+
+}
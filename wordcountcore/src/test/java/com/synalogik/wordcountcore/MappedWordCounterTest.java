@@ -0,0 +1,98 @@
+package com.synalogik.wordcountcore;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import com.synalogik.wordcountcore.vocabulary.OffHeapWordDictionary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class MappedWordCounterTest {
+
+    private static final String[] FRAGMENTS = {"Hello", "world", "3,500.75", "caf\u00e9", "\uD83D\uDE00", "12.", ",7", "a", " ", "  ", "\n", "\r\n", "!", "?", ":", ";", ",", "."};
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void correctlyProcessesSingleLineFile() throws URISyntaxException {
+        final WordCountMetrics wordCountMetrics = new MappedWordCounter().analyseText(getClass().getClassLoader().getResource("singleLine.txt").toURI());
+        assertThat(wordCountMetrics.getTotalWordCount(), is(9));
+        assertThat(wordCountMetrics.getTotalNumberOfCharactersInWords(), is(41));
+    }
+
+    @Test
+    public void smallChunksCountTheSameWordsAsStreaming() throws IOException {
+        // given
+        final File text = randomText(20_000);
+
+        // when
+        final WordCountMetrics mapped = new MappedWordCounter(4, 16).analyseText(text.toURI());
+        final WordCountMetrics streamed = new StreamingWordCounter().analyseText(text.toURI());
+
+        // then
+        assertThat(mapped.getMapFrequencyOfWordsGroupedByWordLength(), is(streamed.getMapFrequencyOfWordsGroupedByWordLength()));
+    }
+
+    @Test
+    public void recordsVocabularyWhenRequested() throws URISyntaxException, IOException {
+        try (OffHeapWordDictionary vocabulary = new OffHeapWordDictionary(OffHeapWordDictionary.MINIMUM_MEMORY_BUDGET, temporaryFolder.getRoot().toPath())) {
+            final WordCountMetrics wordCountMetrics = new MappedWordCounter(4, 16)
+                    .analyseText(getClass().getClassLoader().getResource("singleLine.txt").toURI(), new WordCountMetrics(vocabulary));
+            assertThat(wordCountMetrics.getTotalWordCount(), is(9));
+            assertThat(wordCountMetrics.getFrequencyOfWord("morning"), is(1L));
+            assertThat(wordCountMetrics.getFrequencyOfWord("18/05/2016"), is(1L));
+        }
+    }
+
+    @Test
+    public void emptyFileHasNoData() throws IOException {
+        final WordCountMetrics wordCountMetrics = new MappedWordCounter().analyseText(temporaryFolder.newFile().toURI());
+        assertThat(wordCountMetrics.hasData(), is(false));
+    }
+
+    @Test
+    public void nonFileUriFailsWithWordCounterException() throws URISyntaxException {
+        try {
+            new MappedWordCounter().analyseText(new URI("https://example.com/text.txt"));
+            fail("expected WordCounterException");
+        } catch ( WordCounterException e ) {
+            assertThat(e.getMessage(), is("Invalid pathToSource [https://example.com/text.txt]; must be a local file uri"));
+        }
+    }
+
+    @Test
+    public void directoryFailsWithWordCounterException() {
+        final URI directory = temporaryFolder.getRoot().toURI();
+        try {
+            new MappedWordCounter().analyseText(directory);
+            fail("expected WordCounterException");
+        } catch ( WordCounterException e ) {
+            assertThat(e.getMessage(), is("Invalid pathToSource [" + directory + "]; must be a regular file"));
+        }
+    }
+
+    private File randomText(final int fragments) throws IOException {
+        final Random random = new Random(42);
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fragments; i++) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), text.toString().getBytes(UTF_8));
+        return file;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.synalogik.wordcountcore;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import com.synalogik.wordcountcore.vocabulary.OffHeapWordDictionary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class StreamingWordCounterTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void correctlyProcessesSingleLineFile() throws URISyntaxException {
+        final WordCountMetrics wordCountMetrics = new StreamingWordCounter().analyseText(getClass().getClassLoader().getResource("singleLine.txt").toURI());
+        assertThat(wordCountMetrics.getTotalWordCount(), is(9));
+        assertThat(wordCountMetrics.getTotalNumberOfCharactersInWords(), is(41));
+    }
+
+    @Test
+    public void recordsVocabularyWhenRequested() throws URISyntaxException, IOException {
+        try (OffHeapWordDictionary vocabulary = new OffHeapWordDictionary(OffHeapWordDictionary.MINIMUM_MEMORY_BUDGET, temporaryFolder.getRoot().toPath())) {
+            final WordCountMetrics wordCountMetrics = new StreamingWordCounter()
+                    .analyseText(getClass().getClassLoader().getResource("singleLine.txt").toURI(), new WordCountMetrics(vocabulary));
+            assertThat(wordCountMetrics.getFrequencyOfWord("morning"), is(1L));
+            assertThat(wordCountMetrics.getFrequencyOfWord("18/05/2016"), is(1L));
+            assertThat(wordCountMetrics.getFrequencyOfWord("morning."), is(0L));
+        }
+    }
+
+    @Test
+    public void analysesChannelAcrossSeveralBuffers() {
+        // given; more text than one buffer holds, with a word spanning each buffer boundary
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("Hello 3,500.75 world!\n");
+        }
+
+        // when
+        final WordCountMetrics wordCountMetrics = new StreamingWordCounter()
+                .analyseChannel(Channels.newChannel(new ByteArrayInputStream(text.toString().getBytes(UTF_8))), new WordCountMetrics());
+
+        // then
+        assertThat(wordCountMetrics.getTotalWordCount(), is(60_000));
+        assertThat(wordCountMetrics.getMapFrequencyOfWordsGroupedByWordLength().get(5), is(40_000));
+        assertThat(wordCountMetrics.getMapFrequencyOfWordsGroupedByWordLength().get(8), is(20_000));
+    }
+
+    @Test
+    public void analysesChannelIntoVocabulary() throws IOException {
+        try (OffHeapWordDictionary vocabulary = new OffHeapWordDictionary(OffHeapWordDictionary.MINIMUM_MEMORY_BUDGET, temporaryFolder.getRoot().toPath())) {
+            final WordCountMetrics wordCountMetrics = new StreamingWordCounter()
+                    .analyseChannel(Channels.newChannel(new ByteArrayInputStream("good morning, good day".getBytes(UTF_8))), new WordCountMetrics(vocabulary));
+            assertThat(wordCountMetrics.getFrequencyOfWord("good"), is(2L));
+            assertThat(wordCountMetrics.getFrequencyOfWord("morning"), is(1L));
+        }
+    }
+
+    @Test
+    public void standardInputIsReadFromSuppliedChannelAndLeftOpen() {
+        // given
+        final ReadableByteChannel standardInput = Channels.newChannel(new ByteArrayInputStream("Hello world & good morning".getBytes(UTF_8)));
+        final WordCounterFactory wordCounterFactory = new WordCounterFactory(4, () -> standardInput);
+        final WordCounterFactory.Plan plan = wordCounterFactory.plan(StreamingWordCounter.STANDARD_INPUT);
+
+        // when
+        final WordCountMetrics wordCountMetrics = wordCounterFactory.newWordCounter(plan).analyseText(StreamingWordCounter.STANDARD_INPUT);
+
+        // then
+        assertThat(wordCountMetrics.getTotalWordCount(), is(5));
+        assertThat(wordCountMetrics.getTotalNumberOfCharactersInWords(), is(22));
+        assertThat(standardInput.isOpen(), is(true));
+    }
+
+    @Test
+    public void decompressesGzippedSources() throws URISyntaxException, IOException {
+        final File compressed = temporaryFolder.newFile("singleLine.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed.toPath()))) {
+            Files.copy(Paths.get(getClass().getClassLoader().getResource("singleLine.txt").toURI()), out);
+        }
+
+        final WordCountMetrics wordCountMetrics = new StreamingWordCounter().analyseText(compressed.toURI());
+        assertThat(wordCountMetrics.getTotalWordCount(), is(9));
+        assertThat(wordCountMetrics.getTotalNumberOfCharactersInWords(), is(41));
+    }
+
+    @Test
+    public void incorrectUriFailsWithWordCounterException() throws URISyntaxException {
+        try {
+            new StreamingWordCounter().analyseText(new URI("file:///./file_does_not_exist.txt"));
+            fail("expected WordCounterException");
+        } catch ( WordCounterException e ) {
+            assertThat(e.getMessage(), is("Failed to analyse given uri [file:///./file_does_not_exist.txt]"));
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.synalogik.wordcountcore;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class WordCounterFactoryTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void largeLocalFileIsMappedInParallel() throws IOException {
+        final WordCounterFactory wordCounterFactory = new WordCounterFactory(4);
+        final WordCounterFactory.Plan plan = wordCounterFactory.plan(fileOfSize("large.txt", WordCounterFactory.SMALL_SOURCE_SIZE).toURI());
+        assertThat(plan.getEngine(), is(WordCounterEngine.MAPPED));
+        assertThat(plan.getSourceSize(), is(WordCounterFactory.SMALL_SOURCE_SIZE));
+        assertThat(wordCounterFactory.newWordCounter(plan), instanceOf(MappedWordCounter.class));
+    }
+
+    @Test
+    public void smallLocalFileIsStreamed() throws IOException {
+        final WordCounterFactory wordCounterFactory = new WordCounterFactory(4);
+        final WordCounterFactory.Plan plan = wordCounterFactory.plan(fileOfSize("small.txt", WordCounterFactory.SMALL_SOURCE_SIZE - 1).toURI());
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getReason(), is("small file"));
+        assertThat(wordCounterFactory.newWordCounter(plan), instanceOf(StreamingWordCounter.class));
+    }
+
+    @Test
+    public void largeLocalFileIsStreamedOnASingleProcessor() throws IOException {
+        final WordCounterFactory.Plan plan = new WordCounterFactory(1).plan(fileOfSize("large.txt", WordCounterFactory.SMALL_SOURCE_SIZE).toURI());
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getReason(), is("single processor"));
+    }
+
+    @Test
+    public void largeLocalFileIsStreamedWhileRecordingVocabulary() throws IOException {
+        final URI largeFile = fileOfSize("large.txt", WordCounterFactory.SMALL_SOURCE_SIZE).toURI();
+        final WordCounterFactory.Plan plan = new WordCounterFactory(4).plan(largeFile, null, true);
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getReason(), is("vocabulary"));
+        assertThat(new WordCounterFactory(4).plan(largeFile, WordCounterEngine.MAPPED, true).getEngine(), is(WordCounterEngine.MAPPED));
+    }
+
+    @Test
+    public void compressedFileIsStreamed() throws IOException {
+        final WordCounterFactory.Plan plan = new WordCounterFactory(4).plan(fileOfSize("large.txt.gz", WordCounterFactory.SMALL_SOURCE_SIZE).toURI());
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getReason(), is("compressed"));
+    }
+
+    @Test
+    public void compressedSourceIsStreamedWhateverEngineIsRequested() throws IOException, URISyntaxException {
+        final WordCounterFactory factory = new WordCounterFactory(4);
+        final URI compressedFile = fileOfSize("small.txt.gz", 10).toURI();
+
+        for (WordCounterEngine requested : WordCounterEngine.values()) {
+            assertThat(factory.plan(compressedFile, requested).getEngine(), is(WordCounterEngine.STREAMING));
+            assertThat(factory.plan(new URI("https://example.com/text.txt.gz"), requested).getEngine(), is(WordCounterEngine.STREAMING));
+        }
+    }
+
+    @Test
+    public void webAddressIsStreamedWithUnknownSize() throws URISyntaxException {
+        final WordCounterFactory.Plan plan = new WordCounterFactory(4).plan(new URI("https://example.com/text.txt"));
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getSourceSize(), is(-1L));
+        assertThat(plan.toString(), is("engine=STREAMING (not a local file), size=unknown, processors=4"));
+    }
+
+    @Test
+    public void directoryIsNotARegularFile() {
+        final WordCounterFactory.Plan plan = new WordCounterFactory(4).plan(temporaryFolder.getRoot().toURI());
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getReason(), is("not a regular file"));
+    }
+
+    @Test
+    public void requestedEngineOverridesChoice() throws IOException {
+        final WordCounterFactory.Plan plan = new WordCounterFactory(4).plan(fileOfSize("small.txt", 10).toURI(), WordCounterEngine.BUFFERED);
+        assertThat(plan.getEngine(), is(WordCounterEngine.BUFFERED));
+        assertThat(plan.toString(), is("engine=BUFFERED (requested), size=10 bytes, processors=4"));
+    }
+
+    @Test
+    public void standardInputIsAlwaysStreamed() {
+        final WordCounterFactory.Plan plan = new WordCounterFactory(4).plan(StreamingWordCounter.STANDARD_INPUT, WordCounterEngine.MAPPED);
+        assertThat(plan.getEngine(), is(WordCounterEngine.STREAMING));
+        assertThat(plan.getReason(), is("standard input"));
+    }
+
+    private File fileOfSize(final String name, final long size) throws IOException {
+        final File file = temporaryFolder.newFile(name);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+        }
+        return file;
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.synalogik.wordcountcore.follow;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+
+public class FileFollowerTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<Integer> wordLengths = new ArrayList<>();
+
+    @Test
+    public void existingContentIsSkippedAndAppendedWordsAreReported() throws IOException {
+        final Path file = temporaryFolder.newFile("log.txt").toPath();
+        write(file, "existing content\n");
+
+        try (FileFollower follower = new FileFollower(file, wordLengths::add)) {
+            follower.poll();
+            assertThat(wordLengths, empty());
+
+            append(file, "new words\n");
+            follower.poll();
+            assertThat(wordLengths, contains(3, 5));
+        }
+    }
+
+    @Test
+    public void wordSplitAcrossWritesIsReportedOnce() throws IOException {
+        final Path file = temporaryFolder.newFile("log.txt").toPath();
+
+        try (FileFollower follower = new FileFollower(file, wordLengths::add)) {
+            follower.poll();
+            append(file, "hel");
+            follower.poll();
+            append(file, "lo ");
+            follower.poll();
+            assertThat(wordLengths, contains(5));
+        }
+    }
+
+    @Test
+    public void rotatedFileIsFollowedFromTheStart() throws IOException {
+        final Path file = temporaryFolder.newFile("log.txt").toPath();
+
+        try (FileFollower follower = new FileFollower(file, wordLengths::add)) {
+            follower.poll();
+            append(file, "one ");
+            Files.move(file, file.resolveSibling("log.txt.1"));
+            write(file, "three four\n");
+            follower.poll();
+            assertThat(wordLengths, contains(3, 5, 4));
+        }
+    }
+
+    @Test
+    public void truncatedFileIsFollowedFromTheStart() throws IOException {
+        final Path file = temporaryFolder.newFile("log.txt").toPath();
+
+        try (FileFollower follower = new FileFollower(file, wordLengths::add)) {
+            follower.poll();
+            append(file, "a long line of text\n");
+            follower.poll();
+            wordLengths.clear();
+
+            Files.write(file, "new\n".getBytes(UTF_8), TRUNCATE_EXISTING);
+            follower.poll();
+            assertThat(wordLengths, contains(3));
+        }
+    }
+
+    @Test
+    public void missingFileIsFollowedOnceCreated() throws IOException {
+        final Path file = temporaryFolder.getRoot().toPath().resolve("later.txt");
+
+        try (FileFollower follower = new FileFollower(file, wordLengths::add)) {
+            follower.poll();
+            write(file, "created later\n");
+            follower.poll();
+            assertThat(wordLengths, contains(7, 5));
+        }
+    }
+
+    private void write(final Path file, final String text) throws IOException {
+        Files.write(file, text.getBytes(UTF_8));
+    }
+
+    private void append(final Path file, final String text) throws IOException {
+        Files.write(file, text.getBytes(UTF_8), APPEND);
+    }
+
+}
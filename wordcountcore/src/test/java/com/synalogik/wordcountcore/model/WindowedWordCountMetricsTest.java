@@ -0,0 +1,81 @@
+package com.synalogik.wordcountcore.model;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Testing that WindowedWordCountMetrics only reports word lengths recorded within the requested window.
+ */
+public class WindowedWordCountMetricsTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final WindowedWordCountMetrics windowedMetrics = new WindowedWordCountMetrics(Duration.ofSeconds(10), 6, clock::get);
+
+    @Test
+    public void newlyConstructedObjectHasNoData() {
+        assertThat(windowedMetrics.getMetricsForLast(Duration.ofMinutes(1)).hasData(), is(false));
+    }
+
+    @Test
+    public void wordsInCurrentIntervalAreReported() {
+        windowedMetrics.registerWordOccurrenceOfLength(4);
+        windowedMetrics.registerWordOccurrenceOfLength(4);
+        final WordCountMetrics metrics = windowedMetrics.getMetricsForLast(Duration.ofSeconds(10));
+        assertThat(metrics.getTotalWordCount(), is(2));
+        assertThat(metrics.getMapFrequencyOfWordsGroupedByWordLength().get(4), is(2));
+    }
+
+    @Test
+    public void windowOnlyIncludesRecentIntervals() {
+        windowedMetrics.registerWordOccurrenceOfLength(3);
+        clock.set(30_000);
+        windowedMetrics.registerWordOccurrenceOfLength(5);
+
+        assertThat(windowedMetrics.getMetricsForLast(Duration.ofSeconds(10)).getTotalWordCount(), is(1));
+        assertThat(windowedMetrics.getMetricsForLast(Duration.ofSeconds(30)).getTotalWordCount(), is(1));
+        assertThat(windowedMetrics.getMetricsForLast(Duration.ofSeconds(40)).getTotalWordCount(), is(2));
+    }
+
+    @Test
+    public void expiredIntervalsAreDiscardedWhenTheRingWraps() {
+        windowedMetrics.registerWordOccurrenceOfLength(3);
+        clock.set(60_000);
+        windowedMetrics.registerWordOccurrenceOfLength(5);
+
+        final WordCountMetrics metrics = windowedMetrics.getMetricsForLast(Duration.ofMinutes(1));
+        assertThat(metrics.getTotalWordCount(), is(1));
+        assertThat(metrics.getMapFrequencyOfWordsGroupedByWordLength().get(5), is(1));
+    }
+
+    @Test
+    public void nothingIsReportedOnceTheWindowHasPassed() {
+        windowedMetrics.registerWordOccurrenceOfLength(3);
+        clock.set(120_000);
+        assertThat(windowedMetrics.getMetricsForLast(Duration.ofMinutes(1)).hasData(), is(false));
+    }
+
+    @Test(expected = WordCounterException.class)
+    public void windowLongerThanRingIsRejected() {
+        windowedMetrics.getMetricsForLast(Duration.ofMinutes(2));
+    }
+
+    @Test
+    public void testForThreadSafetyOfWritesAcrossRotation() {
+        IntStream.range(0, 100000).parallel()
+                .forEach(next -> {
+                    if ( next % 10000 == 0 ) {
+                        clock.addAndGet(1000);
+                    }
+                    windowedMetrics.registerWordOccurrenceOfLength(next % 20 + 1);
+                });
+        assertThat(windowedMetrics.getMetricsForLast(Duration.ofMinutes(1)).getTotalWordCount(), is(100000));
+    }
+
+}
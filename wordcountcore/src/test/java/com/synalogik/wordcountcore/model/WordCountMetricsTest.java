@@ -1,7 +1,11 @@
 package com.synalogik.wordcountcore.model;
 
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.vocabulary.OffHeapWordDictionary;
 import org.apache.commons.lang3.RandomUtils;
 import org.junit.Test;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.stream.IntStream;
 
@@ -130,6 +134,33 @@ public class WordCountMetricsTest {
         assertThat( wordCountMetrics.getWordLengthsHavingFrequencyOf(2), containsInAnyOrder(10, 7) );
     }
 
+    @Test(expected = WordCounterException.class)
+    public void frequencyOfWordIsUnavailableWithoutVocabulary() {
+        final WordCountMetrics wordCountMetrics = prePopulatedWordCountMetrics();
+        wordCountMetrics.getFrequencyOfWord("word");
+    }
+
+    @Test
+    public void frequencyOfWordIsRecordedInVocabulary() throws IOException {
+        try (OffHeapWordDictionary vocabulary = new OffHeapWordDictionary(OffHeapWordDictionary.MINIMUM_MEMORY_BUDGET, Paths.get(System.getProperty("java.io.tmpdir")))) {
+            final WordCountMetrics wordCountMetrics = new WordCountMetrics(vocabulary);
+            wordCountMetrics.registerWordOccurrence("word");
+            wordCountMetrics.registerWordOccurrence("word");
+            wordCountMetrics.registerWordOccurrence("other");
+            assertThat(wordCountMetrics.hasVocabulary(), is(true));
+            assertThat(wordCountMetrics.getFrequencyOfWord("word"), is(2L));
+            assertThat(wordCountMetrics.getTotalWordCount(), is(3));
+        }
+    }
+
+    @Test
+    public void mergeAddsWordLengthOccurrences() {
+        final WordCountMetrics wordCountMetrics = prePopulatedWordCountMetrics();
+        wordCountMetrics.merge(prePopulatedWordCountMetrics());
+        assertThat(wordCountMetrics.getTotalWordCount(), is(10));
+        assertThat(wordCountMetrics.getMapFrequencyOfWordsGroupedByWordLength().get(10), is(4));
+    }
+
     private WordCountMetrics prePopulatedWordCountMetrics() {
         final WordCountMetrics wordCountMetrics = new WordCountMetrics();
         wordCountMetrics.registerWordOccurrenceOfLength(10);
@@ -0,0 +1,159 @@
+package com.synalogik.wordcountcore.vocabulary;
+
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Testing that OffHeapWordDictionary counts words exactly, whether or not it has spilled to disk.
+ */
+public class OffHeapWordDictionaryTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void frequencyOfUnrecordedWordIsZero() throws IOException {
+        try (OffHeapWordDictionary dictionary = newDictionary()) {
+            assertThat(dictionary.frequencyOf("missing"), is(0L));
+        }
+    }
+
+    @Test
+    public void recordedWordsAreCountedAndWrittenInOrder() throws IOException {
+        try (OffHeapWordDictionary dictionary = newDictionary()) {
+            add(dictionary, "world", "hello", "world", "caf\u00e9", "Zebra");
+
+            assertThat(dictionary.frequencyOf("world"), is(2L));
+            assertThat(dictionary.frequencyOf("caf\u00e9"), is(1L));
+            assertThat(dictionary.getNumberOfSpilledRuns(), is(0));
+            assertThat(written(dictionary), is("Zebra\t1\ncaf\u00e9\t1\nhello\t1\nworld\t2\n"));
+        }
+    }
+
+    @Test
+    public void countsAreExactWhenSpilledToDisk() throws IOException {
+        final Map<String, Long> expected = new TreeMap<>();
+        final Random random = new Random(7);
+
+        try (OffHeapWordDictionary dictionary = newDictionary()) {
+            for (int i = 0; i < 50000; i++) {
+                final String word = "word" + random.nextInt(20000);
+                add(dictionary, word);
+                expected.merge(word, 1L, Long::sum);
+            }
+
+            assertThat(dictionary.getNumberOfSpilledRuns(), greaterThan(1));
+            assertThat(dictionary.frequencyOf("word42"), is(expected.getOrDefault("word42", 0L)));
+
+            final StringBuilder expectedOutput = new StringBuilder();
+            expected.forEach((word, count) -> expectedOutput.append(word).append('\t').append(count).append('\n'));
+            assertThat(written(dictionary), is(expectedOutput.toString()));
+        }
+    }
+
+    @Test
+    public void frequenciesAreFoundThroughRunIndexesAfterSpilling() throws IOException {
+        try (OffHeapWordDictionary dictionary = newDictionary()) {
+            // even numbered words only, each as many times as its number modulo three, plus one
+            for (int i = 0; i < 40000; i += 2) {
+                for (int occurrence = 0; occurrence <= i % 3; occurrence++) {
+                    add(dictionary, "word" + i);
+                }
+            }
+            assertThat(dictionary.getNumberOfSpilledRuns(), greaterThan(1));
+
+            for (int i = 0; i < 40000; i += 7) {
+                assertThat(dictionary.frequencyOf("word" + i), is(i % 2 == 0 ? i % 3 + 1L : 0L));
+            }
+            // before the first, and after the last, word of every run
+            assertThat(dictionary.frequencyOf("a"), is(0L));
+            assertThat(dictionary.frequencyOf("zzz"), is(0L));
+        }
+    }
+
+    @Test
+    public void allocatedDirectMemoryStaysWithinBudget() throws IOException {
+        final long memoryBudget = 1024 * 1024;
+        try (OffHeapWordDictionary dictionary = new OffHeapWordDictionary(memoryBudget, temporaryFolder.getRoot().toPath())) {
+            for (int i = 0; i < 200000; i++) {
+                add(dictionary, "word" + i);
+            }
+
+            assertThat(dictionary.getNumberOfSpilledRuns(), greaterThan(0));
+            assertThat(dictionary.getAllocatedBytes(), lessThanOrEqualTo(memoryBudget));
+        }
+    }
+
+    @Test
+    public void spilledRunsAreMergedToStayWithinMaximum() throws IOException {
+        final int distinctWords = 300000;
+
+        try (OffHeapWordDictionary dictionary = newDictionary()) {
+            // every word twice, the second time after the first has been spilled
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < distinctWords; i++) {
+                    add(dictionary, "word" + i);
+                    assertThat(dictionary.getNumberOfSpilledRuns(), lessThan(OffHeapWordDictionary.MAXIMUM_RUNS));
+                }
+            }
+
+            assertThat(dictionary.frequencyOf("word123456"), is(2L));
+            final String written = written(dictionary);
+            assertThat(written.split("\n").length, is(distinctWords));
+            assertThat(written.startsWith("word0\t2\nword1\t2\nword10\t2\n"), is(true));
+            assertThat(Files.list(temporaryFolder.getRoot().toPath()).count(), lessThanOrEqualTo((long) OffHeapWordDictionary.MAXIMUM_RUNS));
+        }
+    }
+
+    @Test
+    public void spilledRunsAreDeletedOnClose() throws IOException {
+        final OffHeapWordDictionary dictionary = newDictionary();
+        for (int i = 0; i < 20000; i++) {
+            add(dictionary, "word" + i);
+        }
+        assertThat(dictionary.getNumberOfSpilledRuns(), greaterThan(0));
+
+        dictionary.close();
+
+        assertThat(Files.list(temporaryFolder.getRoot().toPath()).count(), is(0L));
+    }
+
+    @Test(expected = WordCounterException.class)
+    public void memoryBudgetBelowMinimumIsRejected() {
+        new OffHeapWordDictionary(OffHeapWordDictionary.MINIMUM_MEMORY_BUDGET - 1, temporaryFolder.getRoot().toPath());
+    }
+
+    private OffHeapWordDictionary newDictionary() {
+        return new OffHeapWordDictionary(OffHeapWordDictionary.MINIMUM_MEMORY_BUDGET, temporaryFolder.getRoot().toPath());
+    }
+
+    private void add(final OffHeapWordDictionary dictionary, final String... words) {
+        for (String word : words) {
+            final byte[] utf8 = word.getBytes(UTF_8);
+            dictionary.add(utf8, 0, utf8.length);
+        }
+    }
+
+    private String written(final OffHeapWordDictionary dictionary) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dictionary.writeTo(out);
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.synalogik.wordcountflow;
+
+import com.synalogik.wordcountcore.ByteWordTokenizer;
+import com.synalogik.wordcountcore.exception.WordCounterException;
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A non-blocking word counter for reactive pipelines.
+ * As a {@link Flow.Subscriber} it consumes UTF-8 encoded text as a stream of ByteBuffers, requesting them in batches so that upstream is never asked for more than it can be processed.
+ * As a {@link Flow.Publisher} it publishes snapshots of the {@link WordCountMetrics} gathered so far: one every <code>snapshotInterval</code> buffers, and a final one when upstream completes.
+ * <p>
+ * Each snapshot is a copy holding all words counted so far, so a later snapshot supersedes an earlier one.
+ * Periodic snapshots are therefore skipped, rather than waited for, while any subscriber is falling behind, and only reach those subscribed at the time.
+ * The final snapshot is kept once upstream completes, so it is delivered to every subscriber: those subscribed at the time, and any subscribing later.
+ * A failure upstream is passed on to subscribers, including later ones.
+ * <p>
+ * Each instance counts a single stream, so may only be subscribed to one upstream publisher.
+ */
+public class FlowWordCounter implements Flow.Processor<ByteBuffer, WordCountMetrics> {
+
+    public static final int DEFAULT_REQUEST_SIZE = 16;
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+
+    private final WordCountMetrics metrics = new WordCountMetrics();
+    private final ByteWordTokenizer tokenizer = new ByteWordTokenizer(metrics::registerWordOccurrenceOfLength);
+    private final Executor executor;
+    private final SubmissionPublisher<WordCountMetrics> publisher;
+    private final int requestSize;
+    private final int snapshotInterval;
+
+    private Flow.Subscription subscription;
+    private int outstandingRequests;
+    private int buffersSinceSnapshot;
+    private WordCountMetrics finalSnapshot;
+
+    /**
+     * Publish snapshots using the common fork join pool, with default request size and snapshot interval
+     */
+    public FlowWordCounter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_REQUEST_SIZE, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * @param executor used to deliver snapshots to subscribers
+     * @param requestSize number of buffers requested from upstream at a time
+     * @param snapshotInterval number of buffers consumed between periodic snapshots
+     */
+    public FlowWordCounter(final Executor executor, final int requestSize, final int snapshotInterval) {
+        if ( requestSize <= 0 || snapshotInterval <= 0 ) {
+            throw new WordCounterException("Invalid requestSize or snapshotInterval; must be positive");
+        }
+        this.executor = executor;
+        this.publisher = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+        this.requestSize = requestSize;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public synchronized void subscribe(final Flow.Subscriber<? super WordCountMetrics> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if ( finalSnapshot != null ) {
+            // the publisher is closed, so would only complete the subscriber; deliver the final snapshot first
+            executor.execute(() -> subscriber.onSubscribe(new FinalSnapshotSubscription(subscriber, finalSnapshot)));
+        } else {
+            publisher.subscribe(subscriber);
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        if ( this.subscription != null ) {
+            // already counting a stream
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        outstandingRequests = requestSize;
+        subscription.request(requestSize);
+    }
+
+    @Override
+    public void onNext(final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+        tokenizer.feed(buffer);
+
+        if ( ++buffersSinceSnapshot >= snapshotInterval ) {
+            buffersSinceSnapshot = 0;
+            publishPeriodicSnapshot();
+        }
+
+        if ( --outstandingRequests == 0 ) {
+            outstandingRequests = requestSize;
+            subscription.request(requestSize);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        tokenizer.finish();
+        publisher.closeExceptionally(throwable);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        tokenizer.finish();
+        finalSnapshot = snapshot();
+        // periodic snapshots never fill more than half of a subscriber's buffer, so this does not block
+        publisher.submit(finalSnapshot);
+        publisher.close();
+    }
+
+    private void publishPeriodicSnapshot() {
+        if ( publisher.hasSubscribers() && publisher.estimateMaximumLag() < publisher.getMaxBufferCapacity() / 2 ) {
+            publisher.offer(snapshot(), null);
+        }
+    }
+
+    private WordCountMetrics snapshot() {
+        final WordCountMetrics snapshot = new WordCountMetrics();
+        snapshot.merge(metrics);
+        return snapshot;
+    }
+
+    /**
+     * Delivers the final snapshot, then completes, to a subscriber subscribing after upstream completed.
+     */
+    private static class FinalSnapshotSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super WordCountMetrics> subscriber;
+        private final WordCountMetrics finalSnapshot;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private FinalSnapshotSubscription(final Flow.Subscriber<? super WordCountMetrics> subscriber, final WordCountMetrics finalSnapshot) {
+            this.subscriber = subscriber;
+            this.finalSnapshot = finalSnapshot;
+        }
+
+        @Override
+        public void request(final long n) {
+            if ( done.compareAndSet(false, true) ) {
+                if ( n <= 0 ) {
+                    subscriber.onError(new IllegalArgumentException("Invalid request; must be positive"));
+                } else {
+                    subscriber.onNext(finalSnapshot);
+                    subscriber.onComplete();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            done.set(true);
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.synalogik.wordcountflow;
+
+import com.synalogik.wordcountcore.model.WordCountMetrics;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+
+/**
+ * Testing that FlowWordCounter counts words from a stream of buffers, honouring demand, and publishes snapshots of the metrics.
+ */
+public class FlowWordCounterTest {
+
+    @Test
+    public void finalSnapshotCountsAllWordsIncludingThoseSpanningBuffers() throws InterruptedException {
+        // given
+        final FlowWordCounter counter = new FlowWordCounter(Runnable::run, 2, 1);
+        final CollectingSubscriber snapshots = new CollectingSubscriber();
+        counter.subscribe(snapshots);
+
+        // when
+        try (SubmissionPublisher<ByteBuffer> upstream = new SubmissionPublisher<>()) {
+            upstream.subscribe(counter);
+            upstream.submit(ByteBuffer.wrap("Hello wor".getBytes(UTF_8)));
+            upstream.submit(ByteBuffer.wrap("ld & good morning. 3,5".getBytes(UTF_8)));
+            upstream.submit(ByteBuffer.wrap("00.75".getBytes(UTF_8)));
+        }
+
+        // then
+        assertThat(snapshots.completed.await(5, TimeUnit.SECONDS), is(true));
+        final WordCountMetrics last = snapshots.received.get(snapshots.received.size() - 1);
+        assertThat(last.getTotalWordCount(), is(6));
+        assertThat(last.getMapFrequencyOfWordsGroupedByWordLength().get(8), is(1));
+        assertThat(snapshots.received.size(), greaterThan(1));
+    }
+
+    @Test
+    public void finalSnapshotIsDeliveredToSubscribersArrivingAfterCompletion() throws InterruptedException {
+        // given; upstream completes before anyone subscribes
+        final FlowWordCounter counter = new FlowWordCounter(Runnable::run, 2, 1);
+        try (SubmissionPublisher<ByteBuffer> upstream = new SubmissionPublisher<>(Runnable::run, Flow.defaultBufferSize())) {
+            upstream.subscribe(counter);
+            upstream.submit(ByteBuffer.wrap("Hello world".getBytes(UTF_8)));
+        }
+
+        // when
+        final CollectingSubscriber first = new CollectingSubscriber();
+        final CollectingSubscriber second = new CollectingSubscriber();
+        counter.subscribe(first);
+        counter.subscribe(second);
+
+        // then
+        for (CollectingSubscriber late : new CollectingSubscriber[] {first, second}) {
+            assertThat(late.completed.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(late.received.size(), is(1));
+            assertThat(late.received.get(0).getTotalWordCount(), is(2));
+            assertThat(late.error.get(), is((Throwable) null));
+        }
+    }
+
+    @Test
+    public void upstreamIsOnlyAskedForRequestSizeBuffersAtATime() {
+        // given
+        final FlowWordCounter counter = new FlowWordCounter(Runnable::run, 4, 100);
+        final AtomicLong requested = new AtomicLong();
+        counter.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            counter.onNext(ByteBuffer.wrap("word ".getBytes(UTF_8)));
+        }
+
+        // then
+        assertThat(requested.get(), is(4L));
+
+        // when
+        counter.onNext(ByteBuffer.wrap("word ".getBytes(UTF_8)));
+
+        // then
+        assertThat(requested.get(), is(8L));
+    }
+
+    @Test
+    public void upstreamErrorIsPassedToSubscribers() throws InterruptedException {
+        // given
+        final FlowWordCounter counter = new FlowWordCounter(Runnable::run, 1, 1);
+        final CollectingSubscriber snapshots = new CollectingSubscriber();
+        counter.subscribe(snapshots);
+
+        // when
+        counter.onError(new IllegalStateException("upstream failed"));
+
+        // then
+        assertThat(snapshots.completed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(snapshots.error.get(), instanceOf(IllegalStateException.class));
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<WordCountMetrics> {
+        private final List<WordCountMetrics> received = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(WordCountMetrics item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+}